@@ -20,6 +20,36 @@ apiClient.interceptors.request.use(
   (error) => Promise.reject(error)
 );
 
+// Renouvellement en cours partagé : le refresh token est à usage unique, les requêtes parallèles
+// en 401 attendent donc toutes le même appel /auth/refresh au lieu d'en lancer chacune un
+let refreshPromise = null;
+
+const refreshAccessToken = () => {
+  if (!refreshPromise) {
+    refreshPromise = (async () => {
+      const refreshToken = localStorage.getItem('refreshToken');
+      if (!refreshToken) {
+        throw new Error('No refresh token');
+      }
+
+      const { data } = await axios.post(
+        `${API_BASE_URL}/auth/refresh`,
+        { refreshToken }
+      );
+
+      // Sauvegarder les nouveaux tokens
+      localStorage.setItem('accessToken', data.token);
+      if (data.refreshToken) {
+        localStorage.setItem('refreshToken', data.refreshToken);
+      }
+      return data.token;
+    })().finally(() => {
+      refreshPromise = null;
+    });
+  }
+  return refreshPromise;
+};
+
 apiClient.interceptors.response.use(
   (response) => response,
   async (error) => {
@@ -30,25 +60,10 @@ apiClient.interceptors.response.use(
       originalRequest._retry = true;
 
       try {
-        const refreshToken = localStorage.getItem('refreshToken');
-        if (!refreshToken) {
-          throw new Error('No refresh token');
-        }
-
-        // Tenter de rafraîchir le token
-        const { data } = await axios.post(
-          `${API_BASE_URL}/auth/refresh`,
-          { refreshToken }
-        );
-
-        // Sauvegarder les nouveaux tokens
-        localStorage.setItem('accessToken', data.token);
-        if (data.refreshToken) {
-          localStorage.setItem('refreshToken', data.refreshToken);
-        }
+        const token = await refreshAccessToken();
 
         // Réessayer la requête originale avec le nouveau token
-        originalRequest.headers.Authorization = `Bearer ${data.token}`;
+        originalRequest.headers.Authorization = `Bearer ${token}`;
         return apiClient(originalRequest);
       } catch (refreshError) {
         // Refresh échoué, déconnexion
@@ -68,10 +83,16 @@ export const authAPI = {
   login: (payload) => apiClient.post('/auth/login', payload),
   register: (payload) => apiClient.post('/auth/register', payload),
   refresh: (payload) => apiClient.post('/auth/refresh', payload),
+  logout: () => apiClient.post('/auth/logout'),
 };
 
 export const ticketAPI = {
   list: (params) => apiClient.get('/tickets', { params }),
+  // Pagination par curseur : cursor vide pour la première page, puis nextCursor de la réponse
+  seek: ({ cursor = '', ...params } = {}) => apiClient.get('/tickets', { params: { cursor, ...params } }),
+  // Recherche côté serveur : status, priority, appareilStatus, assignedAgentId, requesterId, createdFrom/To, updatedFrom/To, commissionDefinie
+  search: (params) => apiClient.get('/tickets/search', { params }),
+  textSearch: (q, params = {}) => apiClient.get('/tickets/text-search', { params: { ...params, q } }),
   detail: (id) => apiClient.get(`/tickets/${id}`),
   history: (id) => apiClient.get(`/tickets/${id}/history`),
   create: (payload) => apiClient.post('/tickets', payload),
@@ -113,12 +134,18 @@ export const dashboardAPI = {
 export const userAPI = {
   me: () => apiClient.get('/users/me'),
   list: () => apiClient.get('/users'),
+  clients: (params) => apiClient.get('/users/clients', { params }),
+  reparateurs: () => apiClient.get('/users/reparateurs'),
+  // Autocomplétion : role = ROLE_USER (clients) ou ROLE_REPARATEUR
+  suggest: (q, role, limit = 10) => apiClient.get('/users/suggest', { params: { q, role, limit } }),
   create: (payload) => apiClient.post('/users', payload),
 };
 
 export const commissionAPI = {
   getByReparateur: (reparateurId, params) => apiClient.get(`/commissions/reparateur/${reparateurId}`, { params }),
   getSummary: (reparateurId, params) => apiClient.get(`/commissions/reparateur/${reparateurId}/summary`, { params }),
+  // Soldes de tous les réparateurs en un seul appel
+  getBalances: (params) => apiClient.get('/commissions/balances', { params }),
   recordPayment: (reparateurId, payload) => apiClient.post(`/commissions/reparateur/${reparateurId}/payment`, payload),
   getPayments: (reparateurId) => apiClient.get(`/commissions/reparateur/${reparateurId}/payments`),
   // Endpoints pour réparateurs
@@ -141,7 +168,8 @@ export const commissionAPI = {
     return apiClient.get(url, { params });
   },
   // Endpoints pour ADMIN/PROPRIETAIRE
-  getPendingPayments: () => apiClient.get('/commissions/pending-payments'),
+  // Pagination par curseur : { content, nextCursor, hasNext }
+  getPendingPayments: (params) => apiClient.get('/commissions/pending-payments', { params }),
   payCommission: (commissionId, payload) => apiClient.post(`/commissions/commission/${commissionId}/pay`, payload),
 };
 
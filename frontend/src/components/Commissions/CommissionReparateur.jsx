@@ -8,6 +8,9 @@ import { Loading } from '../Common/Loading';
 import { formatCurrency, formatDate, formatDateTime } from '../../utils/calculations';
 import './Commissions.css';
 
+// Le résumé ne renvoie qu'une page de lignes de réparation : on demande la taille maximale acceptée par l'API
+const REPARATIONS_PAGE_SIZE = 200;
+
 function CommissionReparateur() {
   const [selectedReparateur, setSelectedReparateur] = useState(null);
   const [summary, setSummary] = useState(null);
@@ -50,7 +53,7 @@ function CommissionReparateur() {
 
     setLoading(true);
     try {
-      const params = {};
+      const params = { size: REPARATIONS_PAGE_SIZE };
       if (dateDebut) params.dateDebut = new Date(dateDebut).toISOString();
       if (dateFin) params.dateFin = new Date(dateFin + 'T23:59:59').toISOString();
 
@@ -340,6 +343,11 @@ function CommissionReparateur() {
           <div className="reparations-table-card">
             <div className="card-header-premium">
               <h2>✅ Appareils Réparés ({filteredTickets.length})</h2>
+              {summary && summary.totalTicketsRepares > ticketsRepares.length && (
+                <p>
+                  {ticketsRepares.length} plus récents affichés sur {summary.totalTicketsRepares} : réduisez la période pour voir les autres
+                </p>
+              )}
             </div>
             
             {loading ? (
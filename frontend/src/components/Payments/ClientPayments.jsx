@@ -12,6 +12,9 @@ const STATUS_FILTERS = [
   { value: 'PARTIEL', label: 'Partiellement payé' },
 ];
 
+// Taille d'une page de commissions en attente (pagination par curseur côté API)
+const PENDING_PAGE_SIZE = 50;
+
 function ClientPayments() {
   const [payments, setPayments] = useState([]);
   const [filteredPayments, setFilteredPayments] = useState([]);
@@ -32,6 +35,8 @@ function ClientPayments() {
     notes: ''
   });
   const [pendingCommissions, setPendingCommissions] = useState([]);
+  const [pendingCursor, setPendingCursor] = useState(null);
+  const [loadingMorePending, setLoadingMorePending] = useState(false);
   const [showReparateurPayments, setShowReparateurPayments] = useState(false);
   const [payingCommission, setPayingCommission] = useState(null);
   const [isPaying, setIsPaying] = useState(false);
@@ -194,10 +199,30 @@ function ClientPayments() {
 
   const loadPendingCommissions = async () => {
     try {
-      const response = await commissionAPI.getPendingPayments();
-      setPendingCommissions(response.data || []);
+      const response = await commissionAPI.getPendingPayments({ size: PENDING_PAGE_SIZE });
+      setPendingCommissions(response.data?.content || []);
+      setPendingCursor(response.data?.hasNext ? response.data.nextCursor : null);
+    } catch (error) {
+      console.error('Erreur chargement commissions en attente', error);
+    }
+  };
+
+  const loadMorePendingCommissions = async () => {
+    if (!pendingCursor) return;
+
+    setLoadingMorePending(true);
+    try {
+      const response = await commissionAPI.getPendingPayments({
+        cursor: pendingCursor,
+        size: PENDING_PAGE_SIZE
+      });
+      setPendingCommissions((previous) => [...previous, ...(response.data?.content || [])]);
+      setPendingCursor(response.data?.hasNext ? response.data.nextCursor : null);
     } catch (error) {
       console.error('Erreur chargement commissions en attente', error);
+      showError('Impossible de charger la suite des commissions en attente');
+    } finally {
+      setLoadingMorePending(false);
     }
   };
 
@@ -349,6 +374,20 @@ function ClientPayments() {
                   ))}
                 </tbody>
               </table>
+              {pendingCursor && (
+                <div className="pending-load-more">
+                  <span>
+                    {pendingCommissions.length} commissions affichées, d'autres sont en attente
+                  </span>
+                  <button
+                    className="btn-load-more"
+                    onClick={loadMorePendingCommissions}
+                    disabled={loadingMorePending}
+                  >
+                    {loadingMorePending ? 'Chargement...' : 'Afficher plus'}
+                  </button>
+                </div>
+              )}
             </div>
           )}
         </div>
@@ -12,6 +12,8 @@ const paymentMethods = [
   { value: 'AUTRE', label: '📝 Autre' },
 ];
 
+const REPARATIONS_PAGE_SIZE = 20;
+
 function PaymentList() {
   const [reparateurs, setReparateurs] = useState([]);
   const [summaries, setSummaries] = useState({});
@@ -19,6 +21,8 @@ function PaymentList() {
   const [commissions, setCommissions] = useState({});
   const [loading, setLoading] = useState(true);
   const [expandedReparateur, setExpandedReparateur] = useState(null);
+  // Réparations par réparateur, chargées page par page à l'ouverture des détails
+  const [reparations, setReparations] = useState({});
   const [newPayment, setNewPayment] = useState({
     reparateurId: '',
     montant: '',
@@ -40,22 +44,29 @@ function PaymentList() {
       const paymentsData = {};
       const commissionsData = {};
 
+      // Soldes de tous les réparateurs calculés en une seule requête
+      try {
+        const balancesRes = await commissionAPI.getBalances();
+        (balancesRes.data || []).forEach((balance) => {
+          summariesData[balance.reparateurId] = balance;
+        });
+      } catch (err) {
+        console.error('Erreur chargement des soldes réparateurs:', err);
+      }
+
       await Promise.all(
         reparateursList.map(async (rep) => {
           try {
-            const [summaryRes, paymentsRes, commissionsRes] = await Promise.all([
-              commissionAPI.getSummary(rep.id),
+            const [paymentsRes, commissionsRes] = await Promise.all([
               commissionAPI.getPayments(rep.id),
               commissionAPI.getByReparateur(rep.id),
             ]);
 
-            summariesData[rep.id] = summaryRes.data;
             paymentsData[rep.id] = paymentsRes.data || [];
             commissionsData[rep.id] = commissionsRes.data || [];
           } catch (err) {
             console.error(`Erreur chargement données réparateur ${rep.id}:`, err);
             // Initialiser avec des valeurs par défaut si erreur
-            summariesData[rep.id] = null;
             paymentsData[rep.id] = [];
             commissionsData[rep.id] = [];
           }
@@ -80,6 +91,41 @@ function PaymentList() {
     }
   }, [reparateursLoading, allReparateurs]);
 
+  const loadReparations = async (reparateurId, page = 0) => {
+    setReparations((prev) => ({
+      ...prev,
+      [reparateurId]: { items: [], page: 0, hasMore: false, ...prev[reparateurId], loading: true },
+    }));
+    try {
+      const res = await commissionAPI.getSummary(reparateurId, { page, size: REPARATIONS_PAGE_SIZE });
+      const items = res.data?.reparations || [];
+      setReparations((prev) => ({
+        ...prev,
+        [reparateurId]: {
+          items: page === 0 ? items : [...(prev[reparateurId]?.items || []), ...items],
+          page,
+          hasMore: items.length === REPARATIONS_PAGE_SIZE,
+          loading: false,
+        },
+      }));
+    } catch (err) {
+      console.error(`Erreur chargement réparations réparateur ${reparateurId}:`, err);
+      setReparations((prev) => ({ ...prev, [reparateurId]: { ...prev[reparateurId], loading: false } }));
+      showError('Erreur lors du chargement des réparations');
+    }
+  };
+
+  const toggleReparateur = (reparateurId) => {
+    if (expandedReparateur === reparateurId) {
+      setExpandedReparateur(null);
+      return;
+    }
+    setExpandedReparateur(reparateurId);
+    if (!reparations[reparateurId]) {
+      loadReparations(reparateurId);
+    }
+  };
+
   const handleSubmitPayment = async (e) => {
     e.preventDefault();
     if (!newPayment.reparateurId || !newPayment.montant) {
@@ -309,6 +355,7 @@ function PaymentList() {
             const reparateurPayments = payments[reparateur.id] || [];
             const reparateurCommissions = commissions[reparateur.id] || [];
             const isExpanded = expandedReparateur === reparateur.id;
+            const reparateurReparations = reparations[reparateur.id] || { items: [], hasMore: false, loading: false };
 
             return (
               <div key={reparateur.id} className="reparateur-card">
@@ -330,7 +377,7 @@ function PaymentList() {
 
                   <button
                     className="btn-expand"
-                    onClick={() => setExpandedReparateur(isExpanded ? null : reparateur.id)}
+                    onClick={() => toggleReparateur(reparateur.id)}
                   >
                     {isExpanded ? '▼ Réduire' : '▶ Voir détails'}
                   </button>
@@ -447,13 +494,17 @@ function PaymentList() {
                       )}
                     </div>
 
-                    {/* Liste des réparations (si disponible dans le summary) */}
-                    {summary.reparations && summary.reparations.length > 0 && (
-                      <div className="details-section">
-                        <h4>🔧 Détails des Réparations</h4>
+                    {/* Liste des réparations, paginée côté serveur */}
+                    <div className="details-section">
+                      <h4>🔧 Détails des Réparations</h4>
+                      {reparateurReparations.items.length === 0 ? (
+                        <p className="no-items">
+                          {reparateurReparations.loading ? 'Chargement...' : 'Aucune réparation enregistrée'}
+                        </p>
+                      ) : (
                         <div className="reparations-grid">
-                          {summary.reparations.map((rep, idx) => (
-                            <div key={idx} className="reparation-item">
+                          {reparateurReparations.items.map((rep, idx) => (
+                            <div key={`${rep.ticketId}-${idx}`} className="reparation-item">
                               <div className="reparation-header">
                                 <span className="ticket-code">#{rep.ticketCode}</span>
                                 <span className={`status-badge status-${rep.status?.toLowerCase()}`}>
@@ -471,8 +522,17 @@ function PaymentList() {
                             </div>
                           ))}
                         </div>
-                      </div>
-                    )}
+                      )}
+                      {reparateurReparations.hasMore && (
+                        <button
+                          className="btn-expand"
+                          disabled={reparateurReparations.loading}
+                          onClick={() => loadReparations(reparateur.id, reparateurReparations.page + 1)}
+                        >
+                          {reparateurReparations.loading ? 'Chargement...' : 'Voir plus de réparations'}
+                        </button>
+                      )}
+                    </div>
                   </div>
                 )}
               </div>
@@ -159,11 +159,6 @@ const TicketList = memo(function TicketList() {
             <span className="card-label">📱 Appareil:</span>
             <span className="card-value">{ticket.title || '—'}</span>
           </div>
-          {ticket.description && (
-            <div className="ticket-card-description">
-              <span className="card-desc-text">{ticket.description.substring(0, 100)}...</span>
-            </div>
-          )}
           {ticket.assignedAgentName && (
             <div className="ticket-card-technicien">
               <span className="card-label">🔧 Réparateur:</span>
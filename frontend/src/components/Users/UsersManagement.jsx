@@ -3,9 +3,14 @@ import { useAuth } from '../../context/AuthContext';
 import { useNavigate } from 'react-router-dom';
 import './UsersManagement.css';
 
+const CLIENTS_PAGE_SIZE = 50;
+
 function UsersManagement() {
   const [activeTab, setActiveTab] = useState('clients');
   const [clients, setClients] = useState([]);
+  // Pagination serveur des clients : page chargée, total et dernière page (réponse Page de /users/clients)
+  const [clientsPage, setClientsPage] = useState({ number: 0, totalElements: 0, last: true });
+  const [loadingMoreClients, setLoadingMoreClients] = useState(false);
   const [reparateurs, setReparateurs] = useState([]);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState('');
@@ -41,6 +46,41 @@ function UsersManagement() {
     loadUsers();
   }, [isProprietaire, navigate]);
 
+  const fetchClientsPage = (page) => {
+    const token = localStorage.getItem('accessToken');
+    return fetch(`http://localhost:8081/api/users/clients?page=${page}&size=${CLIENTS_PAGE_SIZE}`, {
+      headers: {
+        'Authorization': `Bearer ${token}`,
+        'Content-Type': 'application/json'
+      }
+    });
+  };
+
+  const applyClientsPage = (clientsData, append) => {
+    const content = clientsData.content || [];
+    setClients((prev) => (append ? [...prev, ...content] : content));
+    setClientsPage({
+      number: clientsData.number ?? 0,
+      totalElements: clientsData.totalElements ?? content.length,
+      last: clientsData.last !== false,
+    });
+  };
+
+  const loadMoreClients = async () => {
+    setLoadingMoreClients(true);
+    try {
+      const res = await fetchClientsPage(clientsPage.number + 1);
+      if (res.ok) {
+        applyClientsPage(await res.json(), true);
+      }
+    } catch (err) {
+      setError('Erreur lors du chargement des clients');
+      console.error(err);
+    } finally {
+      setLoadingMoreClients(false);
+    }
+  };
+
   const loadUsers = async () => {
     setLoading(true);
     setError('');
@@ -48,12 +88,7 @@ function UsersManagement() {
       const token = localStorage.getItem('accessToken');
       
         const [clientsRes, reparateursRes] = await Promise.all([
-        fetch('http://localhost:8081/api/users/clients', {
-          headers: {
-            'Authorization': `Bearer ${token}`,
-            'Content-Type': 'application/json'
-          }
-        }),
+        fetchClientsPage(0),
         fetch('http://localhost:8081/api/users/reparateurs', {
           headers: {
             'Authorization': `Bearer ${token}`,
@@ -63,8 +98,7 @@ function UsersManagement() {
       ]);
 
       if (clientsRes.ok) {
-        const clientsData = await clientsRes.json();
-        setClients(clientsData);
+        applyClientsPage(await clientsRes.json(), false);
       }
 
       if (reparateursRes.ok) {
@@ -317,7 +351,7 @@ function UsersManagement() {
         >
           <span className="tab-icon">👤</span>
           <span className="tab-label">Clients</span>
-          <span className="tab-count">{clients.length}</span>
+          <span className="tab-count">{clientsPage.totalElements}</span>
         </button>
         <button
           className={`tab ${activeTab === 'reparateurs' ? 'active' : ''}`}
@@ -429,6 +463,18 @@ function UsersManagement() {
         </div>
       )}
 
+      {!loading && activeTab === 'clients' && !clientsPage.last && (
+        <div className="load-more">
+          <p>
+            {clients.length} clients affichés sur {clientsPage.totalElements}
+            {searchTerm && ' (la recherche porte sur les clients affichés)'}
+          </p>
+          <button className="btn-secondary" onClick={loadMoreClients} disabled={loadingMoreClients}>
+            {loadingMoreClients ? 'Chargement...' : 'Afficher plus de clients'}
+          </button>
+        </div>
+      )}
+
       {/* Modal Add/Edit User */}
       {showModal && (
         <div className="modal-overlay" onClick={handleCloseModal}>
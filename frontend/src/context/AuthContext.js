@@ -1,4 +1,5 @@
 import React, { createContext, useState, useContext, useEffect } from 'react';
+import { authAPI } from '../api/apiClient';
 
 const AuthContext = createContext(null);
 
@@ -23,7 +24,9 @@ export const AuthProvider = ({ children }) => {
     setUser(userData);
   };
 
-  const logout = () => {
+  const logout = async () => {
+    // Révoque le jeton côté serveur ; la déconnexion locale a lieu même si l'appel échoue
+    await authAPI.logout().catch(() => {});
     localStorage.removeItem('accessToken');
     localStorage.removeItem('refreshToken');
     localStorage.removeItem('userData');
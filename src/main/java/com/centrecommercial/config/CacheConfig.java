@@ -1,38 +1,77 @@
 package com.centrecommercial.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import java.util.Collection;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
-
-import java.util.Arrays;
+import org.springframework.core.env.Environment;
 
 /**
  * Configuration du cache Spring pour améliorer les performances
- * Utilise un cache en mémoire (ConcurrentMapCacheManager)
- * Pour la production, envisager Redis pour un cache distribué
+ * Utilise Caffeine : chaque cache est borné (taille ou poids), expire et publie ses statistiques
+ * (hits, misses, évictions) dans Micrometer / Prometheus.
+ * La spécification de chaque cache se règle via app.cache.specs.<nom> (format CaffeineSpec).
+ * Pour la production multi-instances, envisager Redis pour un cache distribué
  */
+@Slf4j
 @Configuration
 @EnableCaching
 public class CacheConfig {
-    
-    @Bean
-    @Profile("!redis") // Utiliser ce cache si Redis n'est pas configuré
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(Arrays.asList(
+
+    private static final List<String> CACHE_NAMES = List.of(
             "tickets",           // Cache pour les tickets
             "ticketDetails",     // Cache pour les détails de tickets
             "users",             // Cache pour les utilisateurs
             "reparateurs",       // Cache pour les réparateurs
-            "commissions",      // Cache pour les commissions
+            "commissions",       // Cache pour les commissions
             "payments",          // Cache pour les paiements
-            "commissionsSummary" // Cache pour les résumés de commissions
-        ));
+            "commissionsSummary", // Cache pour les résumés de commissions
+            "proprietaire",      // Cache pour l'ID du propriétaire (calcul des commissions)
+            "tokenStates",       // Cache pour la version de jeton et l'activation des comptes
+            "userDetails"        // Cache pour les principaux chargés à l'authentification (clé : email)
+    );
+
+    private static final String DEFAULT_SPEC = "maximumSize=1000,expireAfterWrite=10m";
+
+    @Bean
+    @Profile("!redis") // Utiliser ce cache si Redis n'est pas configuré
+    public CacheManager cacheManager(Environment environment, ObjectProvider<CacheReloader> reloaders) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
         cacheManager.setAllowNullValues(false);
+        for (String name : CACHE_NAMES) {
+            String spec = environment.getProperty("app.cache.specs." + name, DEFAULT_SPEC);
+            cacheManager.registerCustomCache(name, buildCache(name, spec, reloaders));
+            log.info("Cache {} configuré : {}", name, spec);
+        }
+        // Liste vide : le gestionnaire devient statique, un nom de cache inconnu est une erreur
+        cacheManager.setCacheNames(List.of());
         return cacheManager;
     }
-}
 
+    private Cache<Object, Object> buildCache(String name, String spec, ObjectProvider<CacheReloader> reloaders) {
+        CaffeineSpec caffeineSpec = CaffeineSpec.parse(spec);
+        Caffeine<Object, Object> builder = Caffeine.from(caffeineSpec).recordStats();
+        if (spec.contains("maximumWeight")) {
+            // Les listes pèsent leur nombre d'éléments : la liste complète des paiements ne peut plus croître sans borne
+            builder.weigher((key, value) -> value instanceof Collection<?> collection ? Math.max(1, collection.size()) : 1);
+        }
+        if (!spec.contains("refreshAfterWrite")) {
+            return builder.build();
+        }
+        // Rafraîchissement anticipé : la valeur courante reste servie pendant le rechargement asynchrone
+        return builder.build(key -> reloaders.orderedStream()
+                .filter(reloader -> reloader.cacheName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Aucun rechargement défini pour le cache " + name))
+                .reload(key));
+    }
+}
@@ -0,0 +1,12 @@
+package com.centrecommercial.config;
+
+/**
+ * Recharge une entrée d'un cache configuré avec refreshAfterWrite (rafraîchissement anticipé).
+ * Le rechargement doit contourner le cache, sinon il renverrait la valeur en cours de rafraîchissement.
+ */
+public interface CacheReloader {
+
+    String cacheName();
+
+    Object reload(Object key);
+}
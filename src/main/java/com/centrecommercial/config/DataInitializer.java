@@ -3,6 +3,9 @@ package com.centrecommercial.config;
 import com.centrecommercial.domain.user.Role;
 import com.centrecommercial.domain.user.RoleType;
 import com.centrecommercial.repository.RoleRepository;
+import com.centrecommercial.service.CommissionService;
+import com.centrecommercial.service.RefreshTokenService;
+import com.centrecommercial.service.TicketService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -11,6 +14,9 @@ import org.springframework.stereotype.Component;
 /**
  * Initialise les données de base au démarrage de l'application
  * Crée automatiquement tous les rôles s'ils n'existent pas
+ * et rapproche les paiements réparateurs encore absents du registre d'affectation
+ * Reprend aussi le type d'appareil des tickets existants et les refresh tokens stockés en clair
+ * (colonnes modifiées que la mise à jour du schéma par Hibernate ne reprend pas)
  */
 @Slf4j
 @Component
@@ -18,6 +24,9 @@ import org.springframework.stereotype.Component;
 public class DataInitializer implements CommandLineRunner {
 
     private final RoleRepository roleRepository;
+    private final CommissionService commissionService;
+    private final TicketService ticketService;
+    private final RefreshTokenService refreshTokenService;
 
     @Override
     public void run(String... args) {
@@ -32,6 +41,15 @@ public class DataInitializer implements CommandLineRunner {
                 return role;
             });
         }
+
+        // Rapprocher les paiements réparateurs enregistrés avant le registre d'affectation
+        commissionService.backfillAllocations();
+
+        // Classer les tickets existants d'après leur titre (sans effet une fois à jour)
+        ticketService.reclassifyAppareilTypes();
+
+        // Hacher les refresh tokens encore stockés en clair et retirer l'ancienne colonne
+        refreshTokenService.migrateLegacyTokens();
         
         log.info("✅ Initialisation terminée - Tous les rôles sont disponibles");
     }
@@ -1,9 +1,12 @@
 package com.centrecommercial.config;
 
+import com.centrecommercial.security.BoundedPasswordEncoder;
 import com.centrecommercial.security.CustomUserDetailsService;
 import com.centrecommercial.security.JwtAuthenticationEntryPoint;
 import com.centrecommercial.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,16 +36,25 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtAuthenticationEntryPoint authenticationEntryPoint;
 
+    /**
+     * BCrypt exécuté sur un pool borné (voir BoundedPasswordEncoder).
+     * Changer app.security.password.bcrypt-strength fait re-hacher chaque mot de passe à la connexion suivante.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.bcrypt-strength:10}") int strength,
+            @Value("${app.security.password.threads:2}") int threads,
+            @Value("${app.security.password.queue-capacity:16}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, queueCapacity, meterRegistry);
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsService); // Re-hachage à la connexion si le coût a changé
         return authProvider;
     }
 
@@ -52,7 +64,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider) throws Exception {
         http.csrf(csrf -> csrf.disable())
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -63,7 +75,7 @@ public class SecurityConfig {
                 .anyRequest().authenticated()
             );
 
-        http.authenticationProvider(authenticationProvider());
+        http.authenticationProvider(authenticationProvider);
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         http.headers(headers -> headers.frameOptions(frame -> frame.sameOrigin()));
 
@@ -1,16 +1,25 @@
 package com.centrecommercial.controller;
 
+import com.centrecommercial.dto.commission.CommissionBatchPaymentRequest;
+import com.centrecommercial.dto.commission.CommissionBatchPaymentResponse;
 import com.centrecommercial.dto.commission.CommissionResponse;
 import com.centrecommercial.dto.commission.CommissionSummaryResponse;
+import com.centrecommercial.dto.commission.ReparateurBalanceResponse;
 import com.centrecommercial.dto.commission.ReparateurPaymentDetailResponse;
 import com.centrecommercial.dto.commission.ReparateurPaymentRequest;
+import com.centrecommercial.dto.common.CursorPage;
 import com.centrecommercial.security.UserPrincipal;
 import com.centrecommercial.service.CommissionService;
+import com.centrecommercial.service.CommissionStatementService;
 import jakarta.validation.Valid;
 import java.time.Instant;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -30,6 +39,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class CommissionController {
 
     private final CommissionService commissionService;
+    private final CommissionStatementService commissionStatementService;
 
     @GetMapping("/reparateur/{reparateurId}")
     @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_PROPRIETAIRE')")
@@ -44,9 +54,19 @@ public class CommissionController {
     @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_PROPRIETAIRE')")
     public ResponseEntity<CommissionSummaryResponse> getSummary(
             @PathVariable Long reparateurId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateDebut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateFin,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(commissionService.getSummary(reparateurId, dateDebut, dateFin, lignes(page, size)));
+    }
+
+    @GetMapping("/balances")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_PROPRIETAIRE')")
+    public ResponseEntity<List<ReparateurBalanceResponse>> getBalances(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateDebut,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateFin) {
-        return ResponseEntity.ok(commissionService.getSummary(reparateurId, dateDebut, dateFin));
+        return ResponseEntity.ok(commissionService.getBalances(dateDebut, dateFin));
     }
 
     @PostMapping("/reparateur/{reparateurId}/payment")
@@ -67,6 +87,21 @@ public class CommissionController {
         return ResponseEntity.ok(commissionService.payCommission(commissionId, request, principal.id()));
     }
 
+    @PostMapping("/pay-batch")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_PROPRIETAIRE')")
+    public ResponseEntity<CommissionBatchPaymentResponse> payCommissions(
+            @Valid @RequestBody CommissionBatchPaymentRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(commissionService.payCommissions(request, principal.id()));
+    }
+
+    @PostMapping("/cloture")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Integer>> cloturer(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth jusqua) {
+        return ResponseEntity.ok(Map.of("relevesCrees", commissionStatementService.cloturerJusqua(jusqua)));
+    }
+
     @GetMapping("/reparateur/{reparateurId}/payments")
     @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_PROPRIETAIRE')")
     public ResponseEntity<List<CommissionResponse>> getPayments(@PathVariable Long reparateurId) {
@@ -99,14 +134,16 @@ public class CommissionController {
     public ResponseEntity<CommissionSummaryResponse> getMySummary(
             @AuthenticationPrincipal UserPrincipal principal,
             @RequestParam(required = false, name = "dateDebut") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateDebut,
-            @RequestParam(required = false, name = "dateFin") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateFin) {
+            @RequestParam(required = false, name = "dateFin") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateFin,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
         try {
             if (principal == null) {
                 throw new RuntimeException("Utilisateur non authentifié");
             }
             log.debug("Récupération résumé réparateur - ID: {}, Date début: {}, Date fin: {}", 
                      principal.id(), dateDebut, dateFin);
-            CommissionSummaryResponse result = commissionService.getSummary(principal.id(), dateDebut, dateFin);
+            CommissionSummaryResponse result = commissionService.getSummary(principal.id(), dateDebut, dateFin, lignes(page, size));
             log.debug("Résumé calculé avec succès - Total commissions: {}", result.totalCommissions());
             return ResponseEntity.ok(result);
         } catch (Exception e) {
@@ -117,8 +154,20 @@ public class CommissionController {
 
     @GetMapping("/pending-payments")
     @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_PROPRIETAIRE')")
-    public ResponseEntity<List<ReparateurPaymentDetailResponse>> getPendingPayments() {
-        return ResponseEntity.ok(commissionService.getPendingPayments());
+    public ResponseEntity<CursorPage<ReparateurPaymentDetailResponse>> getPendingPayments(
+            @RequestParam(required = false) Long reparateurId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateDebut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateFin,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(commissionService.getPendingPayments(reparateurId, dateDebut, dateFin, cursor, size));
     }
-}
 
+    /**
+     * Sans paramètre {@code size}, seule la première page de lignes de réparation est renvoyée
+     */
+    private Pageable lignes(Integer page, Integer size) {
+        return PageRequest.of(page != null ? Math.max(page, 0) : 0,
+                size != null ? Math.max(size, 1) : CommissionService.DEFAULT_LINES_PAGE_SIZE);
+    }
+}
@@ -1,11 +1,15 @@
 package com.centrecommercial.controller;
 
+import com.centrecommercial.dto.common.CursorPage;
 import com.centrecommercial.dto.ticket.AppareilStatusUpdateRequest;
 import com.centrecommercial.dto.ticket.TicketAssignRequest;
 import com.centrecommercial.dto.ticket.TicketCreateRequest;
 import com.centrecommercial.dto.ticket.TicketHistoryResponse;
 import com.centrecommercial.dto.ticket.TicketResponse;
+import com.centrecommercial.dto.ticket.TicketSearchCriteria;
 import com.centrecommercial.dto.ticket.TicketStatusUpdateRequest;
+import com.centrecommercial.dto.ticket.TicketSummaryResponse;
+import com.centrecommercial.service.TicketScope;
 import com.centrecommercial.service.TicketService;
 import com.centrecommercial.security.UserPrincipal;
 import jakarta.validation.Valid;
@@ -24,6 +28,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @Slf4j
@@ -35,23 +40,16 @@ public class TicketController {
     private final TicketService ticketService;
 
     @GetMapping
-    public ResponseEntity<Page<TicketResponse>> list(Pageable pageable,
+    public ResponseEntity<Page<TicketSummaryResponse>> list(Pageable pageable,
                                                     @AuthenticationPrincipal UserPrincipal principal) {
         log.debug("Liste des tickets - Page: {}, Size: {}, User: {}", 
                   pageable.getPageNumber(), pageable.getPageSize(), principal != null ? principal.id() : "anonymous");
         try {
-            // Si c'est un réparateur (sans être admin), retourner uniquement ses tickets assignés
-            if (principal != null && principal.authorities().stream()
-                    .anyMatch(a -> a.getAuthority().equals("ROLE_REPARATEUR")) &&
-                principal.authorities().stream()
-                    .noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
-                Page<TicketResponse> result = ticketService.findByAssignedAgent(principal.id(), pageable);
-                log.debug("Tickets assignés au réparateur {}: {}", principal.id(), result.getTotalElements());
-                return ResponseEntity.ok(result);
-            }
-            
-            Page<TicketResponse> result = ticketService.findAll(pageable);
-            log.debug("Tickets trouvés: {} total, {} dans la page", result.getTotalElements(), result.getContent().size());
+            // Administrateur / propriétaire : tous les tickets ; réparateur : ses tickets assignés ; client : ses demandes
+            TicketScope scope = TicketScope.of(principal);
+            Page<TicketSummaryResponse> result = ticketService.findVisible(scope, pageable);
+            log.debug("Tickets trouvés: {} total, {} dans la page (périmètre: {})",
+                      result.getTotalElements(), result.getContent().size(), scope);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             log.error("Erreur lors de la récupération des tickets", e);
@@ -59,6 +57,33 @@ public class TicketController {
         }
     }
 
+    /**
+     * Mode par curseur : activé par la présence du paramètre cursor (vide pour la première page)
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<TicketSummaryResponse>> seek(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "updatedAt") String orderBy,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(ticketService.findPage(TicketScope.of(principal), orderBy, cursor, size, withTotal));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Page<TicketSummaryResponse>> search(TicketSearchCriteria criteria, Pageable pageable,
+                                                              @AuthenticationPrincipal UserPrincipal principal) {
+        log.debug("Recherche de tickets - Critères: {}", criteria);
+        return ResponseEntity.ok(ticketService.search(TicketScope.of(principal), criteria, pageable));
+    }
+
+    @GetMapping("/text-search")
+    public ResponseEntity<Page<TicketSummaryResponse>> textSearch(@RequestParam String q, Pageable pageable,
+                                                                  @AuthenticationPrincipal UserPrincipal principal) {
+        log.debug("Recherche plein texte des tickets - q: {}, User: {}", q, principal.id());
+        return ResponseEntity.ok(ticketService.searchText(TicketScope.of(principal), q, pageable));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TicketResponse> detail(@PathVariable Long id) {
         log.debug("Détail ticket ID: {}", id);
@@ -124,4 +149,3 @@ public class TicketController {
         return ResponseEntity.noContent().build();
     }
 }
-
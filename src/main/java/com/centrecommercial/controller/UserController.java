@@ -1,15 +1,20 @@
 package com.centrecommercial.controller;
 
+import com.centrecommercial.domain.user.RoleType;
 import com.centrecommercial.dto.user.PasswordUpdateRequest;
 import com.centrecommercial.dto.user.ProfileUpdateRequest;
 import com.centrecommercial.dto.user.UserCreateRequest;
 import com.centrecommercial.dto.user.UserResponse;
+import com.centrecommercial.dto.user.UserSuggestion;
 import com.centrecommercial.dto.user.UserUpdateRequest;
 import com.centrecommercial.security.UserPrincipal;
 import com.centrecommercial.service.UserService;
 import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -20,6 +25,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -37,14 +43,23 @@ public class UserController {
 
     @GetMapping("/clients")
     @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_PROPRIETAIRE')")
-    public ResponseEntity<List<UserResponse>> listClients() {
-        return ResponseEntity.ok(userService.findByRole("ROLE_USER"));
+    public ResponseEntity<Page<UserResponse>> listClients(
+            @PageableDefault(size = 50, sort = {"lastName", "firstName", "id"}) Pageable pageable) {
+        return ResponseEntity.ok(userService.findByRole(RoleType.ROLE_USER, pageable));
     }
 
     @GetMapping("/reparateurs")
     @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_PROPRIETAIRE')")
     public ResponseEntity<List<UserResponse>> listReparateurs() {
-        return ResponseEntity.ok(userService.findByRole("ROLE_REPARATEUR"));
+        return ResponseEntity.ok(userService.findReparateurs());
+    }
+
+    @GetMapping("/suggest")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN') or hasAuthority('ROLE_PROPRIETAIRE')")
+    public ResponseEntity<List<UserSuggestion>> suggest(@RequestParam String q,
+                                                        @RequestParam(required = false) RoleType role,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userService.suggest(q, role, limit));
     }
 
     @GetMapping("/me")
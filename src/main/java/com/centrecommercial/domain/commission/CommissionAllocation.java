@@ -0,0 +1,57 @@
+package com.centrecommercial.domain.commission;
+
+import com.centrecommercial.domain.common.BaseEntity;
+import com.centrecommercial.domain.payment.ReparateurPayment;
+import com.centrecommercial.domain.user.User;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Ligne du registre d'affectation : relie un paiement réparateur à la commission qu'il solde.
+ * Une commission n'est soldée qu'une seule fois (contrainte unique sur commission_id).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "commission_allocations")
+public class CommissionAllocation extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "commission_id", nullable = false, unique = true)
+    private Commission commission;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reparateur_payment_id", nullable = false)
+    private ReparateurPayment reparateurPayment;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reparateur_id", nullable = false)
+    private User reparateur; // Dupliqué depuis la commission pour les recherches indexées par réparateur
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal montant;
+
+    @Column(name = "date_paiement", nullable = false)
+    private Instant datePaiement; // Dupliqué depuis le paiement pour éviter une jointure
+}
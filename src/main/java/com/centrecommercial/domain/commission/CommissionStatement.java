@@ -0,0 +1,75 @@
+package com.centrecommercial.domain.commission;
+
+import com.centrecommercial.domain.common.BaseEntity;
+import com.centrecommercial.domain.user.User;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Relevé mensuel figé d'un réparateur, produit à la clôture de la période.
+ * Les résumés additionnent les relevés clôturés et ne recalculent en direct que la période ouverte.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "commission_statements",
+       uniqueConstraints = @UniqueConstraint(name = "uk_commission_statement_periode", columnNames = {"reparateur_id", "periode"}))
+public class CommissionStatement extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reparateur_id", nullable = false)
+    private User reparateur;
+
+    @Column(nullable = false)
+    private LocalDate periode; // Premier jour du mois clôturé
+
+    @Column(name = "date_debut", nullable = false)
+    private Instant dateDebut;
+
+    @Column(name = "date_fin", nullable = false)
+    private Instant dateFin; // Inclusive, la période suivante commence juste après
+
+    @Column(name = "nombre_commissions", nullable = false)
+    private long nombreCommissions;
+
+    @Column(name = "total_reparations", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalReparations;
+
+    @Column(name = "total_commissions", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalCommissions;
+
+    @Column(name = "somme_pourcentages_ponderes", nullable = false, precision = 18, scale = 4)
+    private BigDecimal sommePourcentagesPonderes; // somme(pourcentage * montant), pour la moyenne pondérée
+
+    @Column(name = "total_paye", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalPaye; // Paiements réparateur enregistrés dans la période
+
+    @Column(name = "montant_solde", nullable = false, precision = 14, scale = 2)
+    private BigDecimal montantSolde; // Commissions soldées par des affectations créées dans la période
+
+    @Column(name = "solde_reporte", nullable = false, precision = 14, scale = 2)
+    private BigDecimal soldeReporte; // Reste à payer cumulé à la fin de la période
+}
@@ -0,0 +1,88 @@
+package com.centrecommercial.domain.ticket;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Type d'appareil réparé, déduit du titre du ticket à la création / modification et stocké en colonne.
+ * Les mots-clés sont comparés mot entier (sans accents, sans casse, pluriel en "s" accepté) :
+ * "pc" ne correspond plus à "PCB" ni "tv" à "ETV".
+ */
+public enum AppareilType {
+    // L'ordre des constantes donne la priorité quand un titre contient plusieurs types
+    TELEPHONE("Téléphone", "telephone", "phone", "smartphone", "iphone", "mobile", "gsm"),
+    ORDINATEUR("Ordinateur", "ordinateur", "ordi", "pc", "laptop", "macbook"),
+    TV("TV", "tv", "tele", "television", "televiseur"),
+    TABLETTE("Tablette", "tablette", "tablet", "ipad"),
+    ECRAN("Écran", "ecran", "screen", "moniteur"),
+    IMPRIMANTE("Imprimante", "imprimante", "printer"),
+    REFRIGERATEUR("Réfrigérateur", "refrigerateur", "frigo", "frigidaire"),
+    LAVE_LINGE("Lave-linge", "lave linge", "machine a laver"),
+    AUTRE("Autre");
+
+    public static final String NON_SPECIFIE = "Non spécifié";
+
+    private static final int MAX_MOTS_PAR_CLE = 3;
+    private static final Map<String, AppareilType> PAR_MOT_CLE = new HashMap<>();
+
+    static {
+        for (AppareilType type : values()) {
+            for (String motCle : type.motsCles) {
+                PAR_MOT_CLE.putIfAbsent(motCle, type);
+            }
+        }
+    }
+
+    private final String label;
+    private final List<String> motsCles;
+
+    AppareilType(String label, String... motsCles) {
+        this.label = label;
+        this.motsCles = List.of(motsCles);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Classe un titre en un seul passage sur ses mots : chaque position est comparée aux clés
+     * d'un, deux ou trois mots ; le type le plus prioritaire trouvé l'emporte.
+     */
+    public static AppareilType classify(String title) {
+        if (title == null || title.isBlank()) {
+            return AUTRE;
+        }
+        String[] mots = Normalizer.normalize(title, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT)
+                .split("[^a-z0-9]+");
+        AppareilType meilleur = AUTRE;
+        for (int i = 0; i < mots.length && meilleur != TELEPHONE; i++) {
+            StringBuilder cle = new StringBuilder();
+            for (int n = 0; n < MAX_MOTS_PAR_CLE && i + n < mots.length; n++) {
+                if (n > 0) {
+                    cle.append(' ');
+                }
+                cle.append(mots[i + n]);
+                AppareilType type = lookup(cle);
+                if (type != null && type.ordinal() < meilleur.ordinal()) {
+                    meilleur = type;
+                }
+            }
+        }
+        return meilleur;
+    }
+
+    private static AppareilType lookup(CharSequence cle) {
+        String mot = cle.toString();
+        AppareilType type = PAR_MOT_CLE.get(mot);
+        if (type == null && mot.length() > 2 && mot.endsWith("s")) {
+            type = PAR_MOT_CLE.get(mot.substring(0, mot.length() - 1));
+        }
+        return type;
+    }
+}
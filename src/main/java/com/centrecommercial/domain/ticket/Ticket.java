@@ -65,6 +65,10 @@ public class Ticket extends BaseEntity {
     @Column(name = "appareil_status", length = 30)
     private AppareilReparationStatus appareilStatus = AppareilReparationStatus.PAS_COMMENCE;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "appareil_type", nullable = false, length = 30)
+    private AppareilType appareilType = AppareilType.AUTRE; // Déduit du titre, voir AppareilType.classify
+
     @Column(name = "commission_percentage", precision = 5, scale = 2)
     private java.math.BigDecimal commissionPercentage;
 
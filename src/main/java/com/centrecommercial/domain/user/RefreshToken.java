@@ -26,8 +26,8 @@ public class RefreshToken extends BaseEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, length = 512)
-    private String token;
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash; // SHA-256 (hex) du jeton remis au client, jamais stocké en clair
 
     @Column(name = "expires_at", nullable = false)
     private Instant expiresAt;
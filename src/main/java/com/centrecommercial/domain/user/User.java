@@ -18,6 +18,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 @Getter
 @Setter
@@ -55,8 +56,13 @@ public class User extends BaseEntity {
     @Column(name = "email_verified", nullable = false)
     private boolean emailVerified = false;
 
+    @Builder.Default
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion = 0; // Incrémentée pour invalider les jetons d'accès déjà émis (rôles, mot de passe, désactivation)
+
     @Builder.Default
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 50) // Listes d'utilisateurs : rôles chargés par lots au lieu d'une requête par utilisateur
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -76,5 +82,9 @@ public class User extends BaseEntity {
     public boolean hasRole(RoleType role) {
         return roles.stream().anyMatch(r -> r.getName() == role);
     }
+
+    public void revokeTokens() {
+        tokenVersion++;
+    }
 }
 
@@ -0,0 +1,15 @@
+package com.centrecommercial.dto.auth;
+
+/**
+ * État d'un utilisateur utile à la validation des jetons d'accès
+ */
+public record TokenStateView(
+        int tokenVersion,
+        boolean enabled
+) {
+    public static final TokenStateView SUPPRIME = new TokenStateView(-1, false);
+
+    public boolean accepts(int version) {
+        return enabled && version == tokenVersion;
+    }
+}
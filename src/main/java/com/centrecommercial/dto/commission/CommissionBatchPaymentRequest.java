@@ -0,0 +1,19 @@
+package com.centrecommercial.dto.commission;
+
+import jakarta.validation.constraints.NotBlank;
+import java.time.Instant;
+import java.util.List;
+
+public record CommissionBatchPaymentRequest(
+        // Soit une liste explicite de commissions...
+        List<Long> commissionIds,
+
+        // ...soit toutes les commissions en attente créées jusqu'à cette date (optionnellement pour un réparateur)
+        Instant jusquA,
+        Long reparateurId,
+
+        @NotBlank(message = "Le mode de paiement est requis")
+        String modePaiement, // CASH, VIREMENT, AUTRE
+
+        String commentaire
+) {}
@@ -0,0 +1,20 @@
+package com.centrecommercial.dto.commission;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public record CommissionBatchPaymentResponse(
+        int nombreCommissionsPayees,
+        BigDecimal montantTotal,
+        Instant datePaiement,
+        List<Versement> versements, // Un paiement par réparateur
+        List<Long> commissionsIgnorees // Introuvables ou déjà payées
+) {
+    public record Versement(
+            Long paiementId,
+            Long reparateurId,
+            int nombreCommissions,
+            BigDecimal montant
+    ) {}
+}
@@ -0,0 +1,28 @@
+package com.centrecommercial.dto.commission;
+
+import com.centrecommercial.domain.payment.PaymentStatus;
+import com.centrecommercial.domain.ticket.AppareilType;
+import com.centrecommercial.domain.ticket.TicketStatus;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Projection d'une ligne de commission (colonnes utiles uniquement, sans charger les entités)
+ */
+public record CommissionLineView(
+        Long commissionId,
+        Instant commissionCreatedAt,
+        Long ticketId,
+        String ticketCode,
+        String ticketTitle,
+        AppareilType ticketAppareilType,
+        Instant ticketCreatedAt,
+        TicketStatus ticketStatus,
+        BigDecimal ticketCommissionPercentage,
+        String clientFirstName,
+        String clientLastName,
+        BigDecimal prixReparation,
+        PaymentStatus statutPaiementClient,
+        BigDecimal pourcentageCommission,
+        BigDecimal montantCommission
+) {}
@@ -0,0 +1,21 @@
+package com.centrecommercial.dto.commission;
+
+import java.math.BigDecimal;
+
+/**
+ * Cumul des relevés clôturés d'un réparateur
+ */
+public record CommissionStatementTotalsView(
+        long nombreCommissions,
+        BigDecimal totalReparations,
+        BigDecimal totalCommissions,
+        BigDecimal sommePourcentagesPonderes,
+        BigDecimal totalPaye
+) {
+    public CommissionStatementTotalsView {
+        totalReparations = totalReparations != null ? totalReparations : BigDecimal.ZERO;
+        totalCommissions = totalCommissions != null ? totalCommissions : BigDecimal.ZERO;
+        sommePourcentagesPonderes = sommePourcentagesPonderes != null ? sommePourcentagesPonderes : BigDecimal.ZERO;
+        totalPaye = totalPaye != null ? totalPaye : BigDecimal.ZERO;
+    }
+}
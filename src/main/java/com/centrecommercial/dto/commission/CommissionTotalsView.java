@@ -0,0 +1,22 @@
+package com.centrecommercial.dto.commission;
+
+import java.math.BigDecimal;
+
+/**
+ * Agrégats des commissions d'un réparateur, calculés en une seule requête SQL
+ */
+public record CommissionTotalsView(
+        long nombreCommissions,
+        BigDecimal totalReparations,
+        BigDecimal totalCommissions,
+        BigDecimal sommePourcentagesPonderes, // somme(pourcentage * montant), pour la moyenne pondérée
+        BigDecimal montantEnAttente // commissions absentes du registre d'affectation
+) {
+    public CommissionTotalsView {
+        // SUM renvoie NULL quand aucune ligne ne correspond
+        totalReparations = totalReparations != null ? totalReparations : BigDecimal.ZERO;
+        totalCommissions = totalCommissions != null ? totalCommissions : BigDecimal.ZERO;
+        sommePourcentagesPonderes = sommePourcentagesPonderes != null ? sommePourcentagesPonderes : BigDecimal.ZERO;
+        montantEnAttente = montantEnAttente != null ? montantEnAttente : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,16 @@
+package com.centrecommercial.dto.commission;
+
+import java.math.BigDecimal;
+
+public record ReparateurBalanceResponse(
+        Long reparateurId,
+        String reparateurName,
+        String reparateurPhone,
+        String specialite,
+        long totalTicketsRepares,
+        BigDecimal totalReparations,
+        BigDecimal totalCommissions,
+        BigDecimal totalPaye,
+        BigDecimal soldeRestant,
+        BigDecimal pourcentageCommission
+) {}
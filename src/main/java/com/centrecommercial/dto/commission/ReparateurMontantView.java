@@ -0,0 +1,11 @@
+package com.centrecommercial.dto.commission;
+
+import java.math.BigDecimal;
+
+/**
+ * Montant agrégé par réparateur
+ */
+public record ReparateurMontantView(
+        Long reparateurId,
+        BigDecimal montant
+) {}
@@ -0,0 +1,29 @@
+package com.centrecommercial.dto.commission;
+
+import java.math.BigDecimal;
+
+/**
+ * Agrégats par réparateur pour le tableau des soldes, calculés en une seule requête groupée
+ */
+public record ReparateurTotalsView(
+        Long reparateurId,
+        String firstName,
+        String lastName,
+        String phone,
+        String specialite,
+        long nombreCommissions,
+        BigDecimal totalReparations,
+        BigDecimal totalCommissions,
+        BigDecimal sommePourcentagesPonderes,
+        BigDecimal montantEnAttente,
+        BigDecimal totalPaye
+) {
+    public ReparateurTotalsView {
+        // SUM renvoie NULL pour un réparateur sans commission ni paiement sur la période
+        totalReparations = totalReparations != null ? totalReparations : BigDecimal.ZERO;
+        totalCommissions = totalCommissions != null ? totalCommissions : BigDecimal.ZERO;
+        sommePourcentagesPonderes = sommePourcentagesPonderes != null ? sommePourcentagesPonderes : BigDecimal.ZERO;
+        montantEnAttente = montantEnAttente != null ? montantEnAttente : BigDecimal.ZERO;
+        totalPaye = totalPaye != null ? totalPaye : BigDecimal.ZERO;
+    }
+}
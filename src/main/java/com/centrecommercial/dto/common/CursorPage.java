@@ -0,0 +1,32 @@
+package com.centrecommercial.dto.common;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page d'une pagination par clé : le curseur de la page suivante, et un total seulement s'il a été demandé.
+ */
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        boolean hasNext,
+        Long totalElements // null si le comptage n'a pas été demandé
+) {
+    /**
+     * Construit une page à partir de {@code size + 1} lignes lues : la ligne en trop signale une page suivante.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content, nextCursor, hasNext, null);
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(content.stream().map(mapper).toList(), nextCursor, hasNext, totalElements);
+    }
+
+    public CursorPage<T> withTotal(Long total) {
+        return new CursorPage<>(content, nextCursor, hasNext, total);
+    }
+}
@@ -0,0 +1,32 @@
+package com.centrecommercial.dto.common;
+
+import com.centrecommercial.exception.BusinessException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position opaque dans une pagination par clé (seek) : couple (date, id) du dernier élément renvoyé.
+ */
+public record KeysetCursor(Instant instant, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = instant.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(Instant.parse(raw.substring(0, index)), Long.parseLong(raw.substring(index + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException("Curseur de pagination invalide");
+        }
+    }
+}
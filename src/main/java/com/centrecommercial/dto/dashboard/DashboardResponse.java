@@ -12,7 +12,8 @@ public record DashboardResponse(
         long ticketsRejetes,
         BigDecimal montantTotal,
         List<TopUser> topUtilisateurs,
-        Map<Instant, Long> actions30Jours
+        Map<Instant, Long> actions30Jours,
+        Map<String, Long> ticketsParAppareil
 ) {
     public record TopUser(Long userId, String fullName, long ticketsResolus) {}
 }
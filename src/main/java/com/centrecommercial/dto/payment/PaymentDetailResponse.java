@@ -20,7 +20,7 @@ public record PaymentDetailResponse(
         Long ticketId,
         String ticketCode,
         String ticketTitle,
-        String appareilType, // Type d'appareil réparé (extrait du title ou description)
+        String appareilType, // Type d'appareil réparé (colonne tickets.appareil_type)
         BigDecimal totalReparation, // Prix total de la réparation (montant du paiement)
         BigDecimal montantPaye, // Montant payé (amount)
         // Statut calculé
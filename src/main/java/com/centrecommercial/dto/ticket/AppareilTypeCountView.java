@@ -0,0 +1,11 @@
+package com.centrecommercial.dto.ticket;
+
+import com.centrecommercial.domain.ticket.AppareilType;
+
+/**
+ * Nombre de tickets pour un type d'appareil
+ */
+public record AppareilTypeCountView(
+        AppareilType appareilType,
+        long nombre
+) {}
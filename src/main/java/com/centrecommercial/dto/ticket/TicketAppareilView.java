@@ -0,0 +1,12 @@
+package com.centrecommercial.dto.ticket;
+
+import com.centrecommercial.domain.ticket.AppareilType;
+
+/**
+ * Titre et type d'appareil stocké d'un ticket, lus par lots pour vérifier la classification au démarrage
+ */
+public record TicketAppareilView(
+        Long id,
+        String title,
+        AppareilType appareilType
+) {}
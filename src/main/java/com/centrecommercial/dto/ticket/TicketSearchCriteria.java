@@ -0,0 +1,35 @@
+package com.centrecommercial.dto.ticket;
+
+import com.centrecommercial.domain.ticket.AppareilReparationStatus;
+import com.centrecommercial.domain.ticket.AppareilType;
+import com.centrecommercial.domain.ticket.TicketPriority;
+import com.centrecommercial.domain.ticket.TicketStatus;
+import java.time.Instant;
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * Filtres combinables de la recherche de tickets : chaque critère nul est ignoré
+ */
+public record TicketSearchCriteria(
+        TicketStatus status,
+        TicketPriority priority,
+        AppareilReparationStatus appareilStatus,
+        AppareilType appareilType,
+        Long assignedAgentId,
+        Long requesterId,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdTo,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedTo,
+        Boolean commissionDefinie // true : pourcentage de commission saisi, false : pas encore défini
+) {
+    /**
+     * Restreint la recherche au périmètre de l'utilisateur (réparateur ou client)
+     */
+    public TicketSearchCriteria restrictTo(Long agentId, Long clientId) {
+        return new TicketSearchCriteria(status, priority, appareilStatus, appareilType,
+                agentId != null ? agentId : assignedAgentId,
+                clientId != null ? clientId : requesterId,
+                createdFrom, createdTo, updatedFrom, updatedTo, commissionDefinie);
+    }
+}
@@ -0,0 +1,32 @@
+package com.centrecommercial.dto.ticket;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.centrecommercial.domain.ticket.AppareilReparationStatus;
+import com.centrecommercial.domain.ticket.AppareilType;
+import com.centrecommercial.domain.ticket.TicketPriority;
+import com.centrecommercial.domain.ticket.TicketStatus;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Ligne de liste de tickets : même contenu que TicketResponse sans la description (colonne TEXT),
+ * chargée uniquement par le détail GET /api/tickets/{id}
+ */
+public record TicketSummaryResponse(
+        Long id,
+        String code,
+        String title,
+        TicketStatus status,
+        TicketPriority priority,
+        AppareilReparationStatus appareilStatus,
+        AppareilType appareilType,
+        Long requesterId,
+        String requesterName,
+        Long assignedAgentId,
+        String assignedAgentName,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant resolvedAt,
+        @JsonFormat(shape = JsonFormat.Shape.STRING)
+        BigDecimal commissionPercentage
+) {}
@@ -0,0 +1,10 @@
+package com.centrecommercial.dto.ticket;
+
+/**
+ * Texte indexé d'un ticket (titre et description), lu par lots lors de la reconstruction de l'index
+ */
+public record TicketTextView(
+        Long id,
+        String title,
+        String description
+) {}
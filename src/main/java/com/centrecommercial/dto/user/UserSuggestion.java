@@ -0,0 +1,16 @@
+package com.centrecommercial.dto.user;
+
+import com.centrecommercial.domain.user.RoleType;
+import java.util.Set;
+
+/**
+ * Suggestion d'autocomplétion : juste de quoi afficher et sélectionner un utilisateur
+ */
+public record UserSuggestion(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phone,
+        Set<RoleType> roles
+) {}
@@ -0,0 +1,74 @@
+package com.centrecommercial.event;
+
+import com.centrecommercial.security.CustomUserDetailsService;
+import java.util.concurrent.ConcurrentMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Invalidation ciblée des caches après validation de la transaction.
+ * Seules les entrées du réparateur et du ticket concernés sont retirées ;
+ * une transaction annulée ne publie rien et laisse le cache intact.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationListener {
+
+    private final CacheManager cacheManager;
+    private final CustomUserDetailsService userDetailsService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentChanged(PaymentChangedEvent event) {
+        evict("payments", "all");
+        if (event.ticketId() != null) {
+            evict("ticketDetails", event.ticketId());
+        }
+        if (event.reparateurId() != null) {
+            evictReparateur(event.reparateurId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommissionsChanged(CommissionsChangedEvent event) {
+        event.reparateurIds().forEach(this::evictReparateur);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        // Le propriétaire résolu et la liste des réparateurs peuvent avoir changé (rôles, compte supprimé ou créé)
+        evict("proprietaire", "id");
+        evict("reparateurs", "all");
+        evict("tokenStates", event.userId());
+        userDetailsService.evict(event.userId());
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    /**
+     * Les clés des caches de commissions commencent par l'ID du réparateur ("12_debut_fin")
+     */
+    private void evictReparateur(Long reparateurId) {
+        String prefixe = reparateurId + "_";
+        for (String cacheName : new String[] {"commissions", "commissionsSummary"}) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                caffeine.asMap().keySet().removeIf(key -> key.toString().startsWith(prefixe));
+            } else if (cache != null && cache.getNativeCache() instanceof ConcurrentMap<?, ?> entries) {
+                entries.keySet().removeIf(key -> key.toString().startsWith(prefixe));
+            } else if (cache != null) {
+                cache.clear(); // Cache sans accès aux clés : on retombe sur un vidage complet
+            }
+        }
+        log.debug("Caches de commissions invalidés pour le réparateur {}", reparateurId);
+    }
+}
@@ -0,0 +1,14 @@
+package com.centrecommercial.event;
+
+import java.util.Set;
+
+/**
+ * Publié lorsque des commissions sont soldées ou qu'un paiement réparateur est enregistré
+ */
+public record CommissionsChangedEvent(
+        Set<Long> reparateurIds
+) {
+    public static CommissionsChangedEvent of(Long reparateurId) {
+        return new CommissionsChangedEvent(Set.of(reparateurId));
+    }
+}
@@ -0,0 +1,11 @@
+package com.centrecommercial.event;
+
+/**
+ * Publié lorsqu'un paiement client est créé ou validé.
+ * Le ticket et le réparateur peuvent être nuls (paiement sans ticket, ticket non assigné).
+ */
+public record PaymentChangedEvent(
+        Long paymentId,
+        Long ticketId,
+        Long reparateurId
+) {}
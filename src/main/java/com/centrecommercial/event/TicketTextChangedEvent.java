@@ -0,0 +1,19 @@
+package com.centrecommercial.event;
+
+/**
+ * Publié lorsque le texte d'un ticket change (création, modification) ou qu'il est supprimé
+ */
+public record TicketTextChangedEvent(
+        Long ticketId,
+        String title,
+        String description,
+        boolean deleted
+) {
+    public static TicketTextChangedEvent indexed(Long ticketId, String title, String description) {
+        return new TicketTextChangedEvent(ticketId, title, description, false);
+    }
+
+    public static TicketTextChangedEvent deleted(Long ticketId) {
+        return new TicketTextChangedEvent(ticketId, null, null, true);
+    }
+}
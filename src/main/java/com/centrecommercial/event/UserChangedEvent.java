@@ -0,0 +1,6 @@
+package com.centrecommercial.event;
+
+/**
+ * Publié après création, modification (profil, rôles, activation) ou suppression d'un utilisateur
+ */
+public record UserChangedEvent(Long userId) {}
@@ -0,0 +1,58 @@
+package com.centrecommercial.repository;
+
+import com.centrecommercial.domain.commission.CommissionAllocation;
+import com.centrecommercial.dto.commission.ReparateurMontantView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CommissionAllocationRepository extends JpaRepository<CommissionAllocation, Long>,
+        CommissionAllocationRepositoryCustom {
+
+    /**
+     * Indique si une commission a déjà été soldée
+     */
+    boolean existsByCommissionId(Long commissionId);
+
+    /**
+     * Date de la première affectation : mise en service du registre
+     */
+    @Query("SELECT MIN(a.createdAt) FROM CommissionAllocation a")
+    Instant findEarliestCreatedAt();
+
+    /**
+     * Affectations d'une liste de commissions (utilise uk_commission_allocation_commission)
+     */
+    @Query("SELECT a FROM CommissionAllocation a WHERE a.commission.id IN :commissionIds")
+    List<CommissionAllocation> findByCommissionIdIn(@Param("commissionIds") Collection<Long> commissionIds);
+
+    /**
+     * Montant des commissions soldées par des affectations enregistrées depuis une date.
+     * La date d'enregistrement (et non la date de paiement) garantit qu'aucune affectation
+     * ne tombe rétroactivement dans une période déjà clôturée.
+     */
+    @Query("SELECT COALESCE(SUM(c.montantReparateur), 0) FROM CommissionAllocation a " +
+           "JOIN a.commission c " +
+           "WHERE a.reparateur.id = :reparateurId " +
+           "AND a.createdAt >= :depuis")
+    BigDecimal sumSoldeesDepuis(@Param("reparateurId") Long reparateurId, @Param("depuis") Instant depuis);
+
+    /**
+     * Montant soldé par réparateur pour les affectations enregistrées dans une période
+     */
+    @Query("SELECT new com.centrecommercial.dto.commission.ReparateurMontantView(a.reparateur.id, SUM(c.montantReparateur)) " +
+           "FROM CommissionAllocation a " +
+           "JOIN a.commission c " +
+           "WHERE a.createdAt >= :dateDebut AND a.createdAt <= :dateFin " +
+           "GROUP BY a.reparateur.id")
+    List<ReparateurMontantView> sumSoldeesParReparateur(
+            @Param("dateDebut") Instant dateDebut,
+            @Param("dateFin") Instant dateFin);
+}
@@ -0,0 +1,12 @@
+package com.centrecommercial.repository;
+
+import com.centrecommercial.domain.commission.CommissionAllocation;
+import java.util.List;
+
+public interface CommissionAllocationRepositoryCustom {
+
+    /**
+     * Insère les affectations par lots JDBC (les identifiants IDENTITY empêchent le batching Hibernate)
+     */
+    void insertAll(List<CommissionAllocation> allocations);
+}
@@ -0,0 +1,44 @@
+package com.centrecommercial.repository;
+
+import com.centrecommercial.domain.commission.CommissionAllocation;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class CommissionAllocationRepositoryImpl implements CommissionAllocationRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO commission_allocations " +
+            "(commission_id, reparateur_payment_id, reparateur_id, montant, date_paiement, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public CommissionAllocationRepositoryImpl(
+            JdbcTemplate jdbcTemplate,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void insertAll(List<CommissionAllocation> allocations) {
+        if (allocations.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, allocations, batchSize, (ps, allocation) -> {
+            ps.setLong(1, allocation.getCommission().getId());
+            ps.setLong(2, allocation.getReparateurPayment().getId());
+            ps.setLong(3, allocation.getReparateur().getId());
+            ps.setBigDecimal(4, allocation.getMontant());
+            ps.setTimestamp(5, Timestamp.from(allocation.getDatePaiement()));
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+        });
+    }
+}
@@ -1,10 +1,18 @@
 package com.centrecommercial.repository;
 
 import com.centrecommercial.domain.commission.Commission;
+import com.centrecommercial.dto.commission.CommissionLineView;
+import com.centrecommercial.dto.commission.CommissionTotalsView;
+import com.centrecommercial.dto.commission.ReparateurTotalsView;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,12 +21,159 @@ public interface CommissionRepository extends JpaRepository<Commission, Long> {
     List<Commission> findByReparateurId(Long reparateurId);
     List<Commission> findByProprietaireId(Long proprietaireId);
     
-    @Query("SELECT DISTINCT c FROM Commission c " +
-           "INNER JOIN FETCH c.payment p " +
-           "LEFT JOIN FETCH p.ticket t " +
-           "LEFT JOIN FETCH t.requester " +
+
+    @Query("SELECT c FROM Commission c " +
            "WHERE c.reparateur.id = :reparateurId " +
-           "ORDER BY c.createdAt DESC")
-    List<Commission> findByReparateurIdWithDetails(@Param("reparateurId") Long reparateurId);
-}
+           "AND NOT EXISTS (SELECT a.id FROM CommissionAllocation a WHERE a.commission = c) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Commission> findUnallocatedByReparateurId(@Param("reparateurId") Long reparateurId);
+
+    /**
+     * Parmi les identifiants demandés, commissions encore non soldées (contrôle des doublons en base).
+     * Verrouillées jusqu'à la fin de la transaction : un second paiement concurrent attend puis ne les voit plus libres.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Commission c " +
+           "WHERE c.id IN :ids " +
+           "AND c.reparateur IS NOT NULL " +
+           "AND NOT EXISTS (SELECT a.id FROM CommissionAllocation a WHERE a.commission = c) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Commission> findUnallocatedByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Commissions non soldées créées jusqu'à une date, éventuellement pour un seul réparateur (verrouillées comme ci-dessus)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Commission c " +
+           "WHERE c.reparateur IS NOT NULL " +
+           "AND (:reparateurId IS NULL OR c.reparateur.id = :reparateurId) " +
+           "AND c.createdAt <= :jusquA " +
+           "AND NOT EXISTS (SELECT a.id FROM CommissionAllocation a WHERE a.commission = c) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Commission> findUnallocatedUpTo(
+            @Param("reparateurId") Long reparateurId,
+            @Param("jusquA") Instant jusquA);
+
+    /**
+     * Commissions non soldées (anti-jointure sur le registre d'affectation), paginées par clé (createdAt, id).
+     * Le curseur est exclusif : seules les lignes strictement après (cursorDate, cursorId) sont renvoyées.
+     */
+    @Query("SELECT new com.centrecommercial.dto.commission.CommissionLineView(" +
+           "c.id, c.createdAt, t.id, t.code, t.title, t.appareilType, t.createdAt, t.status, t.commissionPercentage, " +
+           "r.firstName, r.lastName, p.amount, p.status, c.pourcentageReparateur, c.montantReparateur) " +
+           "FROM Commission c " +
+           "JOIN c.payment p " +
+           "LEFT JOIN p.ticket t " +
+           "LEFT JOIN t.requester r " +
+           "WHERE NOT EXISTS (SELECT a.id FROM CommissionAllocation a WHERE a.commission = c) " +
+           "AND (:reparateurId IS NULL OR c.reparateur.id = :reparateurId) " +
+           "AND (:dateDebut IS NULL OR c.createdAt >= :dateDebut) " +
+           "AND (:dateFin IS NULL OR c.createdAt <= :dateFin) " +
+           "AND (:cursorDate IS NULL OR c.createdAt > :cursorDate " +
+           "     OR (c.createdAt = :cursorDate AND c.id > :cursorId)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommissionLineView> findPendingLines(
+            @Param("reparateurId") Long reparateurId,
+            @Param("dateDebut") Instant dateDebut,
+            @Param("dateFin") Instant dateFin,
+            @Param("cursorDate") Instant cursorDate,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    /**
+     * Totaux, nombre, moyenne pondérée et montant en attente d'un réparateur sur une période, en une seule requête
+     */
+    @Query("SELECT new com.centrecommercial.dto.commission.CommissionTotalsView(" +
+           "COUNT(c.id), SUM(p.amount), SUM(c.montantReparateur), " +
+           "SUM(c.pourcentageReparateur * c.montantReparateur), " +
+           "SUM(CASE WHEN a.id IS NULL THEN c.montantReparateur END)) " +
+           "FROM Commission c " +
+           "JOIN c.payment p " +
+           "LEFT JOIN CommissionAllocation a ON a.commission = c " +
+           "WHERE c.reparateur.id = :reparateurId " +
+           "AND (:dateDebut IS NULL OR c.createdAt >= :dateDebut) " +
+           "AND (:dateFin IS NULL OR c.createdAt <= :dateFin)")
+    CommissionTotalsView summarize(
+            @Param("reparateurId") Long reparateurId,
+            @Param("dateDebut") Instant dateDebut,
+            @Param("dateFin") Instant dateFin);
+
+    /**
+     * Lignes de commission d'un réparateur sur une période (plus récentes d'abord), paginables
+     */
+    @Query("SELECT new com.centrecommercial.dto.commission.CommissionLineView(" +
+           "c.id, c.createdAt, t.id, t.code, t.title, t.appareilType, t.createdAt, t.status, t.commissionPercentage, " +
+           "r.firstName, r.lastName, p.amount, p.status, c.pourcentageReparateur, c.montantReparateur) " +
+           "FROM Commission c " +
+           "JOIN c.payment p " +
+           "JOIN p.ticket t " +
+           "LEFT JOIN t.requester r " +
+           "WHERE c.reparateur.id = :reparateurId " +
+           "AND (:dateDebut IS NULL OR c.createdAt >= :dateDebut) " +
+           "AND (:dateFin IS NULL OR c.createdAt <= :dateFin) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommissionLineView> findLines(
+            @Param("reparateurId") Long reparateurId,
+            @Param("dateDebut") Instant dateDebut,
+            @Param("dateFin") Instant dateFin,
+            Pageable pageable);
 
+    /**
+     * Tableau des soldes de tous les réparateurs sur une période, en une seule requête groupée.
+     * Les réparateurs sans commission sur la période apparaissent avec des totaux à zéro.
+     */
+    @Query("SELECT new com.centrecommercial.dto.commission.ReparateurTotalsView(" +
+           "u.id, u.firstName, u.lastName, u.phone, u.specialite, " +
+           "COUNT(c.id), SUM(p.amount), SUM(c.montantReparateur), " +
+           "SUM(c.pourcentageReparateur * c.montantReparateur), " +
+           "SUM(CASE WHEN a.id IS NULL THEN c.montantReparateur END), " +
+           "(SELECT SUM(rp.montant) FROM ReparateurPayment rp WHERE rp.reparateur.id = u.id " +
+           " AND (:dateDebut IS NULL OR rp.datePaiement >= :dateDebut) " +
+           " AND (:dateFin IS NULL OR rp.datePaiement <= :dateFin))) " +
+           "FROM User u " +
+           "JOIN u.roles role " +
+           "LEFT JOIN Commission c ON c.reparateur = u " +
+           " AND (:dateDebut IS NULL OR c.createdAt >= :dateDebut) " +
+           " AND (:dateFin IS NULL OR c.createdAt <= :dateFin) " +
+           "LEFT JOIN c.payment p " +
+           "LEFT JOIN CommissionAllocation a ON a.commission = c " +
+           "WHERE role.name = com.centrecommercial.domain.user.RoleType.ROLE_REPARATEUR " +
+           "GROUP BY u.id, u.firstName, u.lastName, u.phone, u.specialite " +
+           "ORDER BY u.lastName ASC, u.firstName ASC")
+    List<ReparateurTotalsView> summarizeAllReparateurs(
+            @Param("dateDebut") Instant dateDebut,
+            @Param("dateFin") Instant dateFin);
+
+    /**
+     * Totaux de clôture d'une période : réparateurs ayant des commissions, des paiements ou des affectations
+     * dans la période, qu'ils aient encore le rôle ROLE_REPARATEUR ou non.
+     */
+    @Query("SELECT new com.centrecommercial.dto.commission.ReparateurTotalsView(" +
+           "u.id, u.firstName, u.lastName, u.phone, u.specialite, " +
+           "COUNT(c.id), SUM(p.amount), SUM(c.montantReparateur), " +
+           "SUM(c.pourcentageReparateur * c.montantReparateur), " +
+           "SUM(CASE WHEN a.id IS NULL THEN c.montantReparateur END), " +
+           "(SELECT SUM(rp.montant) FROM ReparateurPayment rp WHERE rp.reparateur.id = u.id " +
+           " AND rp.datePaiement >= :dateDebut AND rp.datePaiement <= :dateFin)) " +
+           "FROM User u " +
+           "LEFT JOIN Commission c ON c.reparateur = u " +
+           " AND c.createdAt >= :dateDebut AND c.createdAt <= :dateFin " +
+           "LEFT JOIN c.payment p " +
+           "LEFT JOIN CommissionAllocation a ON a.commission = c " +
+           "WHERE EXISTS (SELECT c2.id FROM Commission c2 WHERE c2.reparateur = u " +
+           "              AND c2.createdAt >= :dateDebut AND c2.createdAt <= :dateFin) " +
+           "OR EXISTS (SELECT rp2.id FROM ReparateurPayment rp2 WHERE rp2.reparateur = u " +
+           "           AND rp2.datePaiement >= :dateDebut AND rp2.datePaiement <= :dateFin) " +
+           "OR EXISTS (SELECT a2.id FROM CommissionAllocation a2 WHERE a2.reparateur = u " +
+           "           AND a2.createdAt >= :dateDebut AND a2.createdAt <= :dateFin) " +
+           "GROUP BY u.id, u.firstName, u.lastName, u.phone, u.specialite")
+    List<ReparateurTotalsView> summarizeReparateursForPeriod(
+            @Param("dateDebut") Instant dateDebut,
+            @Param("dateFin") Instant dateFin);
+
+    /**
+     * Date de la plus ancienne commission (point de départ de la première clôture)
+     */
+    @Query("SELECT MIN(c.createdAt) FROM Commission c")
+    Instant findEarliestCreatedAt();
+}
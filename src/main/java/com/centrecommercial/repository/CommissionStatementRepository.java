@@ -0,0 +1,45 @@
+package com.centrecommercial.repository;
+
+import com.centrecommercial.domain.commission.CommissionStatement;
+import com.centrecommercial.dto.commission.CommissionStatementTotalsView;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CommissionStatementRepository extends JpaRepository<CommissionStatement, Long> {
+
+    /**
+     * Dernier relevé clôturé d'un réparateur
+     */
+    Optional<CommissionStatement> findTopByReparateurIdOrderByPeriodeDesc(Long reparateurId);
+
+    /**
+     * Dernière période clôturée, tous réparateurs confondus
+     */
+    Optional<CommissionStatement> findTopByOrderByPeriodeDesc();
+
+    boolean existsByPeriode(LocalDate periode);
+
+    /**
+     * Dernier relevé de chaque réparateur antérieur à une période (porte le solde à reporter)
+     */
+    @Query("SELECT s FROM CommissionStatement s " +
+           "WHERE s.periode = (SELECT MAX(s2.periode) FROM CommissionStatement s2 " +
+           "                   WHERE s2.reparateur = s.reparateur AND s2.periode < :periode)")
+    List<CommissionStatement> findLatestBefore(@Param("periode") LocalDate periode);
+
+    /**
+     * Cumul des relevés clôturés d'un réparateur (une ligne par mois au lieu d'une par commission)
+     */
+    @Query("SELECT new com.centrecommercial.dto.commission.CommissionStatementTotalsView(" +
+           "COALESCE(SUM(s.nombreCommissions), 0), SUM(s.totalReparations), SUM(s.totalCommissions), " +
+           "SUM(s.sommePourcentagesPonderes), SUM(s.totalPaye)) " +
+           "FROM CommissionStatement s " +
+           "WHERE s.reparateur.id = :reparateurId")
+    CommissionStatementTotalsView sumByReparateurId(@Param("reparateurId") Long reparateurId);
+}
@@ -1,11 +1,50 @@
 package com.centrecommercial.repository;
 
 import com.centrecommercial.domain.user.RefreshToken;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
-    void deleteByUser_Id(Long userId);
-}
 
+    /**
+     * Recherche par hash du jeton (index unique uk_refresh_tokens_hash), utilisateur joint
+     */
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Consomme un jeton : un seul appel concurrent peut le supprimer (1 ligne), les autres obtiennent 0
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.id = :id")
+    int consume(@Param("id") Long id);
+
+    /**
+     * Jetons actifs d'un utilisateur, plus anciens d'abord (idx_refresh_tokens_user_expires)
+     */
+    @Query("SELECT t.id FROM RefreshToken t " +
+           "WHERE t.user.id = :userId AND t.revoked = false AND t.expiresAt > :now " +
+           "ORDER BY t.createdAt ASC, t.id ASC")
+    List<Long> findActiveIds(@Param("userId") Long userId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Lot de jetons expirés ou révoqués à purger (idx_refresh_tokens_expires)
+     */
+    @Query("SELECT t.id FROM RefreshToken t WHERE t.expiresAt <= :now OR t.revoked = true ORDER BY t.id")
+    List<Long> findPurgeableIds(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -43,5 +43,13 @@ public interface ReparateurPaymentRepository extends JpaRepository<ReparateurPay
             @Param("dateDebut") Instant dateDebut,
             @Param("dateFin") Instant dateFin
     );
-}
 
+    /**
+     * Paiements qui ne soldent encore aucune commission, enregistrés avant une date (toutes dates si null)
+     */
+    @Query("SELECT rp FROM ReparateurPayment rp " +
+           "WHERE NOT EXISTS (SELECT a.id FROM CommissionAllocation a WHERE a.reparateurPayment = rp) " +
+           "AND (:avant IS NULL OR rp.createdAt < :avant) " +
+           "ORDER BY rp.datePaiement ASC, rp.id ASC")
+    List<ReparateurPayment> findUnallocatedCreatedBefore(@Param("avant") Instant avant);
+}
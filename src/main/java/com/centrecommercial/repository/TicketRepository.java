@@ -1,22 +1,52 @@
 package com.centrecommercial.repository;
 
+import com.centrecommercial.domain.ticket.AppareilType;
 import com.centrecommercial.domain.ticket.Ticket;
 import com.centrecommercial.domain.ticket.TicketStatus;
+import com.centrecommercial.dto.ticket.AppareilTypeCountView;
+import com.centrecommercial.dto.ticket.TicketAppareilView;
+import com.centrecommercial.dto.ticket.TicketSummaryResponse;
+import com.centrecommercial.dto.ticket.TicketTextView;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface TicketRepository extends JpaRepository<Ticket, Long> {
+public interface TicketRepository extends JpaRepository<Ticket, Long>, TicketRepositoryCustom {
 
-    Page<Ticket> findByStatus(TicketStatus status, Pageable pageable);
+    /**
+     * Projection des listes de tickets : demandeur et réparateur joints dans la même requête,
+     * noms concaténés en SQL (pas de chargement des User ni de leurs rôles), sans la description TEXT.
+     */
+    String TICKET_SUMMARY_SELECT =
+            "SELECT new com.centrecommercial.dto.ticket.TicketSummaryResponse(" +
+            "t.id, t.code, t.title, t.status, t.priority, " +
+            "COALESCE(t.appareilStatus, com.centrecommercial.domain.ticket.AppareilReparationStatus.PAS_COMMENCE), t.appareilType, " +
+            "r.id, CASE WHEN r.id IS NULL THEN NULL ELSE CONCAT(r.firstName, ' ', r.lastName) END, " +
+            "a.id, CASE WHEN a.id IS NULL THEN NULL ELSE CONCAT(a.firstName, ' ', a.lastName) END, " +
+            "t.createdAt, t.updatedAt, t.resolvedAt, t.commissionPercentage) " +
+            "FROM Ticket t " +
+            "LEFT JOIN t.requester r " +
+            "LEFT JOIN t.assignedAgent a ";
+
+    @Query(value = TICKET_SUMMARY_SELECT,
+           countQuery = "SELECT COUNT(t) FROM Ticket t")
+    Page<TicketSummaryResponse> findAllSummaries(Pageable pageable);
 
-    Page<Ticket> findByRequesterId(Long requesterId, Pageable pageable);
+    @Query(value = TICKET_SUMMARY_SELECT + "WHERE a.id = :agentId",
+           countQuery = "SELECT COUNT(t) FROM Ticket t WHERE t.assignedAgent.id = :agentId")
+    Page<TicketSummaryResponse> findSummariesByAssignedAgentId(@Param("agentId") Long agentId, Pageable pageable);
 
-    Page<Ticket> findByAssignedAgentId(Long agentId, Pageable pageable);
+    @Query(value = TICKET_SUMMARY_SELECT + "WHERE r.id = :requesterId",
+           countQuery = "SELECT COUNT(t) FROM Ticket t WHERE t.requester.id = :requesterId")
+    Page<TicketSummaryResponse> findSummariesByRequesterId(@Param("requesterId") Long requesterId, Pageable pageable);
+
+    Page<Ticket> findByStatus(TicketStatus status, Pageable pageable);
 
     long countByStatus(TicketStatus status);
 
@@ -24,5 +54,79 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     long countCreatedSince(@Param("since") Instant since);
 
     List<Ticket> findTop5ByOrderByUpdatedAtDesc();
-}
 
+    /**
+     * Page de tickets par clé (updatedAt, id), plus récents d'abord, optionnellement pour un réparateur ou un client.
+     * Le curseur est exclusif : seules les lignes strictement avant (cursorDate, cursorId) sont renvoyées.
+     */
+    @Query(TICKET_SUMMARY_SELECT +
+           "WHERE (:agentId IS NULL OR a.id = :agentId) " +
+           "AND (:requesterId IS NULL OR r.id = :requesterId) " +
+           "AND (:cursorDate IS NULL OR t.updatedAt < :cursorDate " +
+           "     OR (t.updatedAt = :cursorDate AND t.id < :cursorId)) " +
+           "ORDER BY t.updatedAt DESC, t.id DESC")
+    List<TicketSummaryResponse> findPageByUpdatedAt(
+            @Param("agentId") Long agentId,
+            @Param("requesterId") Long requesterId,
+            @Param("cursorDate") Instant cursorDate,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    /**
+     * Page de tickets par clé (createdAt, id), plus récents d'abord, optionnellement pour un réparateur ou un client
+     */
+    @Query(TICKET_SUMMARY_SELECT +
+           "WHERE (:agentId IS NULL OR a.id = :agentId) " +
+           "AND (:requesterId IS NULL OR r.id = :requesterId) " +
+           "AND (:cursorDate IS NULL OR t.createdAt < :cursorDate " +
+           "     OR (t.createdAt = :cursorDate AND t.id < :cursorId)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TicketSummaryResponse> findPageByCreatedAt(
+            @Param("agentId") Long agentId,
+            @Param("requesterId") Long requesterId,
+            @Param("cursorDate") Instant cursorDate,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    /**
+     * Nombre de tickets par type d'appareil (idx_tickets_appareil_type)
+     */
+    @Query("SELECT new com.centrecommercial.dto.ticket.AppareilTypeCountView(t.appareilType, COUNT(t)) " +
+           "FROM Ticket t GROUP BY t.appareilType ORDER BY COUNT(t) DESC")
+    List<AppareilTypeCountView> countByAppareilType();
+
+    long countByAssignedAgentId(Long agentId);
+
+    long countByRequesterId(Long requesterId);
+
+    @Query(TICKET_SUMMARY_SELECT + "WHERE t.id IN :ids")
+    List<TicketSummaryResponse> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * IDs des tickets visibles dans le périmètre d'un réparateur ou d'un client (index agent / demandeur)
+     */
+    @Query("SELECT t.id FROM Ticket t " +
+           "WHERE (:agentId IS NULL OR t.assignedAgent.id = :agentId) " +
+           "AND (:requesterId IS NULL OR t.requester.id = :requesterId)")
+    List<Long> findIdsInScope(
+            @Param("agentId") Long agentId,
+            @Param("requesterId") Long requesterId);
+
+    /**
+     * Lot de textes de tickets par ID croissant, pour reconstruire l'index de recherche plein texte
+     */
+    @Query("SELECT new com.centrecommercial.dto.ticket.TicketTextView(t.id, t.title, t.description) " +
+           "FROM Ticket t WHERE t.id > :afterId ORDER BY t.id")
+    List<TicketTextView> findTextAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Lot de titres et types d'appareil par ID croissant, pour la reprise de classification au démarrage
+     */
+    @Query("SELECT new com.centrecommercial.dto.ticket.TicketAppareilView(t.id, t.title, t.appareilType) " +
+           "FROM Ticket t WHERE t.id > :afterId ORDER BY t.id")
+    List<TicketAppareilView> findAppareilTypesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Ticket t SET t.appareilType = :appareilType WHERE t.id IN :ids")
+    int updateAppareilType(@Param("ids") Collection<Long> ids, @Param("appareilType") AppareilType appareilType);
+}
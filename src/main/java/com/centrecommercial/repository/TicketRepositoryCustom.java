@@ -0,0 +1,14 @@
+package com.centrecommercial.repository;
+
+import com.centrecommercial.dto.ticket.TicketSearchCriteria;
+import com.centrecommercial.dto.ticket.TicketSummaryResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface TicketRepositoryCustom {
+
+    /**
+     * Recherche multi-critères : seuls les filtres renseignés deviennent des prédicats SQL
+     */
+    Page<TicketSummaryResponse> search(TicketSearchCriteria criteria, Pageable pageable);
+}
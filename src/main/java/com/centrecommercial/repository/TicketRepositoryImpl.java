@@ -0,0 +1,113 @@
+package com.centrecommercial.repository;
+
+import com.centrecommercial.domain.ticket.AppareilReparationStatus;
+import com.centrecommercial.domain.ticket.Ticket;
+import com.centrecommercial.domain.user.User;
+import com.centrecommercial.dto.ticket.TicketSearchCriteria;
+import com.centrecommercial.dto.ticket.TicketSummaryResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+public class TicketRepositoryImpl implements TicketRepositoryCustom {
+
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Order.desc("updatedAt"), Sort.Order.desc("id"));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<TicketSummaryResponse> search(TicketSearchCriteria criteria, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<TicketSummaryResponse> query = cb.createQuery(TicketSummaryResponse.class);
+        Root<Ticket> ticket = query.from(Ticket.class);
+        Join<Ticket, User> requester = ticket.join("requester", JoinType.LEFT);
+        Join<Ticket, User> agent = ticket.join("assignedAgent", JoinType.LEFT);
+        query.select(cb.construct(TicketSummaryResponse.class,
+                        ticket.get("id"), ticket.get("code"), ticket.get("title"),
+                        ticket.get("status"), ticket.get("priority"),
+                        cb.coalesce(ticket.<AppareilReparationStatus>get("appareilStatus"), AppareilReparationStatus.PAS_COMMENCE),
+                        ticket.get("appareilType"),
+                        requester.get("id"), fullName(cb, requester),
+                        agent.get("id"), fullName(cb, agent),
+                        ticket.get("createdAt"), ticket.get("updatedAt"), ticket.get("resolvedAt"),
+                        ticket.get("commissionPercentage")))
+                .where(predicates(cb, ticket, criteria))
+                .orderBy(QueryUtils.toOrders(pageable.getSortOr(DEFAULT_SORT), ticket, cb));
+
+        List<TicketSummaryResponse> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<Ticket> counted = countQuery.from(Ticket.class);
+        countQuery.select(cb.count(counted)).where(predicates(cb, counted, criteria));
+
+        return new PageImpl<>(content, pageable, entityManager.createQuery(countQuery).getSingleResult());
+    }
+
+    private Predicate[] predicates(CriteriaBuilder cb, Root<Ticket> ticket, TicketSearchCriteria criteria) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.status() != null) {
+            predicates.add(cb.equal(ticket.get("status"), criteria.status()));
+        }
+        if (criteria.priority() != null) {
+            predicates.add(cb.equal(ticket.get("priority"), criteria.priority()));
+        }
+        if (criteria.appareilStatus() != null) {
+            Predicate egal = cb.equal(ticket.get("appareilStatus"), criteria.appareilStatus());
+            // Un statut appareil absent vaut PAS_COMMENCE (même règle que l'affichage)
+            predicates.add(criteria.appareilStatus() == AppareilReparationStatus.PAS_COMMENCE
+                    ? cb.or(egal, cb.isNull(ticket.get("appareilStatus")))
+                    : egal);
+        }
+        if (criteria.appareilType() != null) {
+            predicates.add(cb.equal(ticket.get("appareilType"), criteria.appareilType()));
+        }
+        if (criteria.assignedAgentId() != null) {
+            predicates.add(cb.equal(ticket.get("assignedAgent").get("id"), criteria.assignedAgentId()));
+        }
+        if (criteria.requesterId() != null) {
+            predicates.add(cb.equal(ticket.get("requester").get("id"), criteria.requesterId()));
+        }
+        if (criteria.createdFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(ticket.get("createdAt"), criteria.createdFrom()));
+        }
+        if (criteria.createdTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(ticket.get("createdAt"), criteria.createdTo()));
+        }
+        if (criteria.updatedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(ticket.get("updatedAt"), criteria.updatedFrom()));
+        }
+        if (criteria.updatedTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(ticket.get("updatedAt"), criteria.updatedTo()));
+        }
+        if (criteria.commissionDefinie() != null) {
+            predicates.add(criteria.commissionDefinie()
+                    ? cb.isNotNull(ticket.get("commissionPercentage"))
+                    : cb.isNull(ticket.get("commissionPercentage")));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    private Expression<String> fullName(CriteriaBuilder cb, Join<Ticket, User> user) {
+        return cb.<String>selectCase()
+                .when(cb.isNull(user.get("id")), cb.nullLiteral(String.class))
+                .otherwise(cb.concat(cb.concat(user.get("firstName"), " "), user.get("lastName")));
+    }
+}
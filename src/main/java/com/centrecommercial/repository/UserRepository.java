@@ -1,11 +1,56 @@
 package com.centrecommercial.repository;
 
+import com.centrecommercial.domain.user.RoleType;
 import com.centrecommercial.domain.user.User;
+import com.centrecommercial.dto.auth.TokenStateView;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-}
 
+    /**
+     * Utilisateurs ayant un rôle, paginés et triés (jointure sur idx_user_roles_role)
+     */
+    @Query(value = "SELECT u FROM User u JOIN u.roles r WHERE r.name = :role",
+           countQuery = "SELECT COUNT(u) FROM User u JOIN u.roles r WHERE r.name = :role")
+    Page<User> findByRole(@Param("role") RoleType role, Pageable pageable);
+
+    @Query("SELECT u FROM User u JOIN u.roles r WHERE r.name = :role")
+    List<User> findAllByRole(@Param("role") RoleType role, Sort sort);
+
+    /**
+     * Version de jeton et activation, sans charger l'utilisateur ni ses rôles (clé primaire)
+     */
+    @Query("SELECT new com.centrecommercial.dto.auth.TokenStateView(u.tokenVersion, u.enabled) FROM User u WHERE u.id = :id")
+    Optional<TokenStateView> findTokenState(@Param("id") Long id);
+
+    /**
+     * Remplace le hash du mot de passe sans charger l'utilisateur (re-hachage à la connexion)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.id = :id")
+    int updatePasswordHash(@Param("id") Long id, @Param("passwordHash") String passwordHash);
+
+    /**
+     * Lot d'utilisateurs par ID croissant, pour reconstruire l'annuaire d'autocomplétion
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * IDs des utilisateurs ayant un rôle, par ID croissant, sans charger les utilisateurs
+     * (idx_user_roles_role sur user_roles)
+     */
+    @Query("SELECT u.id FROM User u JOIN u.roles r WHERE r.name = :role ORDER BY u.id")
+    List<Long> findIdsByRole(@Param("role") RoleType role, Pageable pageable);
+}
@@ -0,0 +1,97 @@
+package com.centrecommercial.security;
+
+import com.centrecommercial.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Exécute le hachage et la vérification des mots de passe (BCrypt) sur un pool dédié de taille fixe.
+ * Une rafale de connexions ne peut occuper que ces threads et leur file bornée : au-delà,
+ * l'appel est refusé immédiatement (429) au lieu de bloquer les threads Tomcat des autres requêtes.
+ * Les durées sont publiées dans security.password.hash (op=encode|matches), le pool dans executor.*.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "passwordHashing");
+        this.encodeTimer = Timer.builder("security.password.hash").tag("op", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("security.password.hash").tag("op", "matches").register(meterRegistry);
+        this.rejected = Counter.builder("security.password.rejected")
+                .description("Hachages refusés faute de place dans le pool")
+                .register(meterRegistry);
+        log.info("Pool de hachage des mots de passe : {} threads, file de {}", threads, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> matchesTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword); // Lecture de l'en-tête du hash, pas de calcul
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Trop de demandes d'authentification en cours, veuillez réessayer.", RETRY_AFTER_SECONDS);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hachage du mot de passe interrompu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Échec du hachage du mot de passe", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -2,23 +2,93 @@ package com.centrecommercial.security;
 
 import com.centrecommercial.exception.NotFoundException;
 import com.centrecommercial.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+/**
+ * Chargement des utilisateurs par email pour l'authentification.
+ * Les principaux sont gardés dans le cache borné "userDetails" (clé : email) ; CacheInvalidationListener
+ * les retire après chaque modification validée (rôles, activation, mot de passe, suppression).
+ * Les taux de succès viennent des métriques du cache ; security.userdetails.age mesure l'âge
+ * des entrées servies, c'est-à-dire la fraîcheur des données utilisées.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    public static final String CACHE_NAME = "userDetails";
 
     private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final Timer ageTimer;
+
+    public CustomUserDetailsService(UserRepository userRepository, CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+        this.ageTimer = Timer.builder("security.userdetails.age")
+                .description("Âge des principaux servis depuis le cache userDetails")
+                .register(meterRegistry);
+    }
+
+    private record CachedPrincipal(UserPrincipal principal, long loadedAt) {}
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return load(email);
+        }
+        CachedPrincipal cached;
+        try {
+            cached = cache.get(email, () -> new CachedPrincipal(load(email), System.currentTimeMillis()));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause; // Utilisateur introuvable : rien n'est mis en cache
+            }
+            throw e;
+        }
+        ageTimer.record(Duration.ofMillis(System.currentTimeMillis() - cached.loadedAt()));
+        return cached.principal();
+    }
+
+    /**
+     * Appelé à la connexion quand le hash stocké utilise un coût BCrypt différent de celui configuré :
+     * le mot de passe, déjà vérifié, est enregistré avec le nouveau hash.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) user;
+        userRepository.updatePasswordHash(principal.id(), newPassword);
+        evict(principal.id());
+        log.info("Mot de passe re-haché avec le coût configuré pour l'utilisateur {}", principal.id());
+        return new UserPrincipal(principal.id(), principal.email(), newPassword, principal.enabled(), principal.authorities());
+    }
+
+    /**
+     * Retire le principal d'un utilisateur. La clé (email) peut avoir changé : la recherche se fait par ID.
+     */
+    public void evict(Long userId) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            caffeine.asMap().values().removeIf(value ->
+                    value instanceof CachedPrincipal cached && cached.principal().id().equals(userId));
+        } else if (cache != null) {
+            cache.clear(); // Cache sans accès aux valeurs : on retombe sur un vidage complet
+        }
+    }
+
+    private UserPrincipal load(String email) {
         return userRepository.findByEmail(email)
                 .map(UserPrincipal::from)
                 .orElseThrow(() -> new NotFoundException("Utilisateur introuvable"));
     }
 }
-
@@ -1,40 +1,54 @@
 package com.centrecommercial.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+/**
+ * Authentifie la requête depuis le jeton seul : une vérification de signature, un principal construit
+ * depuis les claims, puis une comparaison de version de jeton (servie par cache) pour rejeter
+ * les comptes désactivés ou modifiés depuis l'émission, et un test en mémoire des jetons révoqués à la déconnexion.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
-    private final UserDetailsService userDetailsService;
+    private final TokenStateService tokenStateService;
+    private final TokenRevocationList tokenRevocationList;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         String token = resolveToken(request);
-        if (token != null) {
-            String username = jwtUtils.extractUsername(token);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtils.isTokenValid(token, userDetails)
-                    && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                Claims claims = jwtUtils.parse(token);
+                UserPrincipal principal = JwtUtils.toPrincipal(claims);
+                if (!tokenRevocationList.isRevoked(claims.getId())
+                        && tokenStateService.find(principal.id()).accepts(JwtUtils.version(claims))) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                } else {
+                    log.debug("Jeton révoqué pour l'utilisateur {}", principal.id());
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Jeton JWT rejeté: {}", e.getMessage());
             }
         }
         filterChain.doFilter(request, response);
@@ -48,4 +62,3 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 }
-
@@ -1,20 +1,34 @@
 package com.centrecommercial.security;
 
+import com.centrecommercial.domain.user.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.Map;
+import java.util.List;
+import java.util.UUID;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+/**
+ * Émission et vérification des jetons d'accès.
+ * Le jeton porte l'ID, les rôles et la version de jeton de l'utilisateur : une requête authentifiée
+ * n'a plus besoin de recharger l'utilisateur, seule la version est comparée (voir TokenStateService).
+ * L'identifiant unique (jti) permet de révoquer un jeton précis à la déconnexion (voir TokenRevocationList).
+ */
 @Component
 public class JwtUtils {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_VERSION = "ver";
+
     private final SecretKey signingKey;
+    private final JwtParser parser; // Immuable et thread-safe : construit une seule fois
     private final long expirationMs;
 
     public JwtUtils(
@@ -22,48 +36,48 @@ public class JwtUtils {
             @Value("${jwt.expiration}") long expirationMs
     ) {
         this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
         this.expirationMs = expirationMs;
     }
 
-    public String generateToken(UserDetails userDetails, Map<String, Object> claims) {
+    public String generateToken(User user) {
         Date now = new Date();
         return Jwts.builder()
-                .claims(claims)
-                .subject(userDetails.getUsername())
+                .id(UUID.randomUUID().toString())
+                .subject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLES, user.getRoles().stream().map(role -> role.getName().name()).sorted().toList())
+                .claim(CLAIM_VERSION, user.getTokenVersion())
                 .issuedAt(now)
                 .expiration(new Date(now.getTime() + expirationMs))
                 .signWith(signingKey)
                 .compact();
     }
 
-    public String generateToken(UserDetails userDetails) {
-        return generateToken(userDetails, Map.of());
-    }
-
-    public String extractUsername(String token) {
-        return parseClaims(token).getSubject();
+    /**
+     * Vérifie la signature et l'expiration en une seule analyse
+     *
+     * @throws JwtException si le jeton est invalide, expiré ou mal formé
+     */
+    public Claims parse(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isExpired(token);
+    public static UserPrincipal toPrincipal(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        if (userId == null || roles == null) {
+            throw new JwtException("Jeton sans identifiant ou rôles");
+        }
+        return UserPrincipal.of(userId, claims.getSubject(), roles.stream().map(Object::toString).toList());
     }
 
-    private boolean isExpired(String token) {
-        Date expiration = parseClaims(token).getExpiration();
-        return expiration.before(new Date());
-    }
-
-    private Claims parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(signingKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public static int version(Claims claims) {
+        Integer version = claims.get(CLAIM_VERSION, Integer.class);
+        return version != null ? version : -1;
     }
 
     public long getExpirationMs() {
         return expirationMs;
     }
 }
-
@@ -0,0 +1,147 @@
+package com.centrecommercial.security;
+
+import com.centrecommercial.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limitation des tentatives d'authentification par seaux à jetons, par adresse IP et par compte (email).
+ * Chaque seau se remplit en continu jusqu'à sa capacité ; une tentative consomme un jeton,
+ * un seau vide renvoie 429 avec le délai avant le prochain jeton (Retry-After).
+ * Les seaux inactifs expirent : la mémoire reste bornée même face à des adresses ou emails aléatoires.
+ * Refus comptés dans security.login.rejected (limit=ip|account) ; seul le passage d'un seau à l'état limité
+ * est journalisé, jamais l'email du compte visé.
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    private static final long MAX_BUCKETS = 100_000;
+
+    private final Policy ipPolicy;
+    private final Policy accountPolicy;
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Cache<String, TokenBucket> accountBuckets;
+    private final Counter ipRejected;
+    private final Counter accountRejected;
+
+    public LoginRateLimiter(
+            @Value("${app.security.login-rate.ip.capacity:20}") int ipCapacity,
+            @Value("${app.security.login-rate.ip.refill-per-minute:20}") double ipRefillPerMinute,
+            @Value("${app.security.login-rate.account.capacity:5}") int accountCapacity,
+            @Value("${app.security.login-rate.account.refill-per-minute:1}") double accountRefillPerMinute,
+            MeterRegistry meterRegistry) {
+        this.ipPolicy = new Policy(ipCapacity, ipRefillPerMinute);
+        this.accountPolicy = new Policy(accountCapacity, accountRefillPerMinute);
+        this.ipBuckets = buckets(ipPolicy);
+        this.accountBuckets = buckets(accountPolicy);
+        this.ipRejected = Counter.builder("security.login.rejected").tag("limit", "ip").register(meterRegistry);
+        this.accountRejected = Counter.builder("security.login.rejected").tag("limit", "account").register(meterRegistry);
+    }
+
+    /**
+     * Tentative de connexion : consomme un jeton pour l'adresse IP puis un pour le compte
+     */
+    public void checkLogin(String clientIp, String email) {
+        checkIp(clientIp);
+        if (email != null) {
+            String account = email.trim().toLowerCase(Locale.ROOT);
+            TokenBucket bucket = accountBuckets.get(account, key -> new TokenBucket(accountPolicy));
+            long waitNanos = bucket.tryConsume();
+            if (waitNanos > 0) {
+                accountRejected.increment();
+                if (bucket.markLimited()) {
+                    log.debug("Limite de tentatives de connexion atteinte pour un compte");
+                }
+                throw rejected(waitNanos);
+            }
+        }
+    }
+
+    /**
+     * Renouvellement de jeton ou inscription : limité par adresse IP seulement
+     */
+    public void checkIp(String clientIp) {
+        TokenBucket bucket = ipBuckets.get(clientIp, key -> new TokenBucket(ipPolicy));
+        long waitNanos = bucket.tryConsume();
+        if (waitNanos > 0) {
+            ipRejected.increment();
+            if (bucket.markLimited()) {
+                log.warn("Trop de tentatives d'authentification depuis {}", clientIp);
+            }
+            throw rejected(waitNanos);
+        }
+    }
+
+    private static TooManyRequestsException rejected(long waitNanos) {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return new TooManyRequestsException("Trop de tentatives, veuillez réessayer dans " + retryAfter + " s.", retryAfter);
+    }
+
+    private static Cache<String, TokenBucket> buckets(Policy policy) {
+        // Un seau inactif plus longtemps que son remplissage complet est plein : inutile de le garder
+        return Caffeine.newBuilder()
+                .maximumSize(MAX_BUCKETS)
+                .expireAfterAccess(Duration.ofNanos(Math.max(policy.nanosPerToken() * policy.capacity(), TimeUnit.SECONDS.toNanos(1))))
+                .build();
+    }
+
+    private record Policy(int capacity, double refillPerMinute) {
+        long nanosPerToken() {
+            return (long) (TimeUnit.MINUTES.toNanos(1) / refillPerMinute);
+        }
+    }
+
+    /**
+     * Seau sans verrou : l'état (jetons, date de calcul) est remplacé par compare-and-set
+     */
+    static final class TokenBucket {
+
+        private record State(double tokens, long updatedAt) {}
+
+        private final Policy policy;
+        private final AtomicReference<State> state;
+        private final AtomicBoolean limited = new AtomicBoolean();
+
+        TokenBucket(Policy policy) {
+            this.policy = policy;
+            this.state = new AtomicReference<>(new State(policy.capacity(), System.nanoTime()));
+        }
+
+        /**
+         * @return 0 si un jeton a été consommé, sinon l'attente en nanosecondes avant le prochain jeton
+         */
+        long tryConsume() {
+            double tokensPerNano = 1.0 / policy.nanosPerToken();
+            while (true) {
+                State current = state.get();
+                long now = System.nanoTime();
+                double tokens = Math.min(policy.capacity(), current.tokens() + (now - current.updatedAt()) * tokensPerNano);
+                if (tokens < 1) {
+                    return (long) Math.ceil((1 - tokens) / tokensPerNano);
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                    limited.set(false);
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * @return true au premier refus depuis le dernier jeton consommé (une seule trace par épisode)
+         */
+        boolean markLimited() {
+            return limited.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.centrecommercial.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Liste de révocation des jetons d'accès (claim jti), tenue en mémoire.
+ * Un filtre de Bloom répond en temps constant pour l'immense majorité des jetons jamais révoqués ;
+ * seuls ses positifs (vrais ou faux) sont confirmés dans l'ensemble exact jti → expiration.
+ * Deux générations de filtre couvrent chacune une durée de vie de jeton : à chaque rotation la plus ancienne
+ * est abandonnée avec les entrées exactes expirées, la mémoire reste donc proportionnelle aux révocations récentes.
+ * Liste locale à l'instance : en déploiement multi-instances, la version de jeton (TokenStateService) reste la référence.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final long windowMs;
+    private final int bits;
+    private final int hashes;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>(); // jti → expiration (ms epoch)
+    private final Counter hits;
+    private volatile Generations generations;
+
+    public TokenRevocationList(
+            @Value("${jwt.expiration}") long tokenLifetimeMs,
+            @Value("${app.security.revocation.expected-per-window:10000}") int expectedPerWindow,
+            MeterRegistry meterRegistry) {
+        int expected = Math.max(1, expectedPerWindow);
+        this.windowMs = Math.max(1, tokenLifetimeMs);
+        this.bits = Math.max(64, (int) Math.ceil(-expected * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2))));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expected * Math.log(2)));
+        this.generations = new Generations(new BloomFilter(bits), new BloomFilter(bits), System.currentTimeMillis());
+        this.hits = Counter.builder("security.token.revoked.hits").register(meterRegistry);
+        Gauge.builder("security.token.revoked.size", revoked, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Révoque un jeton jusqu'à son expiration (au-delà, la signature le rejette déjà)
+     */
+    public void revoke(String jti, long expiresAtMs) {
+        long now = System.currentTimeMillis();
+        if (jti == null || expiresAtMs <= now) {
+            return;
+        }
+        revoked.put(jti, expiresAtMs);
+        current(now).current().add(jti, hashes);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        Generations gen = current(now);
+        if (!gen.current().mightContain(jti, hashes) && !gen.previous().mightContain(jti, hashes)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        if (expiresAt == null || expiresAt <= now) {
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    private Generations current(long now) {
+        Generations gen = generations;
+        if (now - gen.startedAt() < windowMs) {
+            return gen;
+        }
+        synchronized (this) {
+            gen = generations;
+            if (now - gen.startedAt() >= windowMs) {
+                // Les jetons insérés dans la génération abandonnée ont expiré depuis au moins une durée de vie
+                gen = new Generations(new BloomFilter(bits), gen.current(), now);
+                generations = gen;
+                revoked.values().removeIf(expiresAt -> expiresAt <= now);
+            }
+            return gen;
+        }
+    }
+
+    private record Generations(BloomFilter current, BloomFilter previous, long startedAt) {
+    }
+
+    /**
+     * Filtre de Bloom sans verrou (double hachage sur 64 bits, bits positionnés par CAS)
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long size;
+
+        BloomFilter(int bits) {
+            this.words = new AtomicLongArray((bits + 63) >>> 6);
+            this.size = (long) words.length() << 6;
+        }
+
+        void add(String key, int hashes) {
+            long h1 = hash(key);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long word;
+                do {
+                    word = words.get(index);
+                } while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask));
+            }
+        }
+
+        boolean mightContain(String key, int hashes) {
+            long h1 = hash(key);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String key) {
+            long h = 0xCBF29CE484222325L; // FNV-1a 64 bits
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                h = (h ^ (b & 0xFF)) * 0x100000001B3L;
+            }
+            return mix(h);
+        }
+
+        private static long mix(long h) {
+            h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+            h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            return h ^ (h >>> 33);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.centrecommercial.security;
+
+import com.centrecommercial.dto.auth.TokenStateView;
+import com.centrecommercial.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Vérification légère des jetons d'accès : version de jeton et activation du compte,
+ * lues par une requête à deux colonnes puis gardées dans le cache "tokenStates".
+ * L'entrée est retirée après chaque UserChangedEvent validé ; la durée de vie du cache
+ * borne le délai de prise en compte sur les autres instances.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenStateService {
+
+    private final UserRepository userRepository;
+
+    @Cacheable(value = "tokenStates", key = "#userId", sync = true)
+    public TokenStateView find(Long userId) {
+        return userRepository.findTokenState(userId).orElse(TokenStateView.SUPPRIME);
+    }
+}
@@ -30,6 +30,16 @@ public record UserPrincipal(
         );
     }
 
+    /**
+     * Principal reconstruit depuis les claims d'un jeton d'accès (pas de mot de passe, compte actif)
+     */
+    public static UserPrincipal of(Long id, String email, Collection<String> roles) {
+        Set<GrantedAuthority> authorities = roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toUnmodifiableSet());
+        return new UserPrincipal(id, email, null, true, authorities);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
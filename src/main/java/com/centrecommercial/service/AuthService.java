@@ -1,6 +1,5 @@
 package com.centrecommercial.service;
 
-import com.centrecommercial.domain.user.RefreshToken;
 import com.centrecommercial.domain.user.Role;
 import com.centrecommercial.domain.user.RoleType;
 import com.centrecommercial.domain.user.User;
@@ -9,17 +8,20 @@ import com.centrecommercial.dto.auth.LoginRequest;
 import com.centrecommercial.dto.auth.RefreshTokenRequest;
 import com.centrecommercial.dto.auth.RegisterRequest;
 import com.centrecommercial.dto.user.UserResponse;
+import com.centrecommercial.event.UserChangedEvent;
 import com.centrecommercial.exception.BusinessException;
 import com.centrecommercial.exception.NotFoundException;
-import com.centrecommercial.repository.RefreshTokenRepository;
 import com.centrecommercial.repository.RoleRepository;
 import com.centrecommercial.repository.UserRepository;
 import com.centrecommercial.security.JwtUtils;
-import java.time.Instant;
+import com.centrecommercial.security.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import java.util.HashSet;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -34,10 +36,12 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenService refreshTokenService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
+    private final TokenRevocationList tokenRevocationList;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public UserResponse register(RegisterRequest request) {
@@ -53,10 +57,11 @@ public class AuthService {
                 .email(request.email())
                 .passwordHash(passwordEncoder.encode(request.password()))
                 .phone(request.phone())
-                .roles(Set.of(userRole))
+                .roles(new HashSet<>(Set.of(userRole)))
                 .build();
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
         return toResponse(user);
     }
 
@@ -65,42 +70,42 @@ public class AuthService {
                 new UsernamePasswordAuthenticationToken(request.email(), request.password()));
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        String token = jwtUtils.generateToken((org.springframework.security.core.userdetails.UserDetails) authentication.getPrincipal());
-        RefreshToken refreshToken = createRefreshToken(request.email());
-
         User user = userRepository.findByEmail(request.email())
                 .orElseThrow(() -> new NotFoundException("Utilisateur introuvable"));
+        String token = jwtUtils.generateToken(user);
+        String refreshToken = refreshTokenService.issue(user);
 
-        return new AuthResponse(token, refreshToken.getToken(), jwtUtils.getExpirationMs(), toResponse(user));
+        return new AuthResponse(token, refreshToken, jwtUtils.getExpirationMs(), toResponse(user));
     }
 
+    /**
+     * Rotation : l'ancien refresh token est consommé et remplacé dans la même transaction
+     */
+    @Transactional
     public AuthResponse refresh(RefreshTokenRequest request) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(request.refreshToken())
-                .filter(token -> !token.isRevoked() && token.getExpiresAt().isAfter(Instant.now()))
-                .orElseThrow(() -> new BusinessException("Refresh token invalide ou expiré."));
-
-        User user = refreshToken.getUser();
-        String token = jwtUtils.generateToken(org.springframework.security.core.userdetails.User.withUsername(user.getEmail())
-                .password(user.getPasswordHash())
-                .authorities(user.getRoles().stream().map(r -> r.getName().name()).toArray(String[]::new))
-                .build());
-
-        return new AuthResponse(token, refreshToken.getToken(), jwtUtils.getExpirationMs(), toResponse(user));
-    }
+        User user = refreshTokenService.consume(request.refreshToken());
+        if (!user.isEnabled()) {
+            throw new BusinessException("Compte désactivé.");
+        }
+        String token = jwtUtils.generateToken(user);
+        String refreshToken = refreshTokenService.issue(user);
 
-    @Transactional
-    public void logout(Long userId) {
-        refreshTokenRepository.deleteByUser_Id(userId);
+        return new AuthResponse(token, refreshToken, jwtUtils.getExpirationMs(), toResponse(user));
     }
 
-    private RefreshToken createRefreshToken(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new NotFoundException("Utilisateur introuvable"));
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setUser(user);
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setExpiresAt(Instant.now().plusSeconds(60L * 60L * 24L * 7L)); // 7 jours
-        return refreshTokenRepository.save(refreshToken);
+    /**
+     * Déconnexion : le jeton d'accès présenté est révoqué jusqu'à son expiration
+     * et les refresh tokens de l'utilisateur sont supprimés
+     */
+    public void logout(String accessToken) {
+        Claims claims;
+        try {
+            claims = jwtUtils.parse(accessToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            return; // Jeton déjà invalide ou expiré : rien à révoquer
+        }
+        tokenRevocationList.revoke(claims.getId(), claims.getExpiration().getTime());
+        refreshTokenService.revokeAll(JwtUtils.toPrincipal(claims).id());
     }
 
     private UserResponse toResponse(User user) {
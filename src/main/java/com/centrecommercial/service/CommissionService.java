@@ -1,26 +1,53 @@
 package com.centrecommercial.service;
 
 import com.centrecommercial.domain.commission.Commission;
+import com.centrecommercial.domain.commission.CommissionAllocation;
+import com.centrecommercial.domain.commission.CommissionStatement;
 import com.centrecommercial.domain.payment.Payment;
 import com.centrecommercial.domain.payment.ReparateurPayment;
+import com.centrecommercial.domain.ticket.AppareilType;
 import com.centrecommercial.domain.ticket.Ticket;
 import com.centrecommercial.domain.user.User;
+import com.centrecommercial.dto.commission.CommissionBatchPaymentRequest;
+import com.centrecommercial.dto.commission.CommissionBatchPaymentResponse;
+import com.centrecommercial.dto.commission.CommissionLineView;
 import com.centrecommercial.dto.commission.CommissionResponse;
+import com.centrecommercial.dto.commission.CommissionStatementTotalsView;
 import com.centrecommercial.dto.commission.CommissionSummaryResponse;
+import com.centrecommercial.dto.commission.CommissionTotalsView;
+import com.centrecommercial.dto.commission.ReparateurBalanceResponse;
 import com.centrecommercial.dto.commission.ReparateurPaymentDetailResponse;
 import com.centrecommercial.dto.commission.ReparateurPaymentRequest;
+import com.centrecommercial.dto.common.CursorPage;
+import com.centrecommercial.dto.common.KeysetCursor;
+import com.centrecommercial.event.CommissionsChangedEvent;
 import com.centrecommercial.exception.BusinessException;
+import com.centrecommercial.repository.CommissionAllocationRepository;
 import com.centrecommercial.repository.CommissionRepository;
+import com.centrecommercial.repository.CommissionStatementRepository;
 import com.centrecommercial.repository.ReparateurPaymentRepository;
 import com.centrecommercial.repository.UserRepository;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,6 +59,15 @@ public class CommissionService {
     private final CommissionRepository commissionRepository;
     private final UserRepository userRepository;
     private final ReparateurPaymentRepository reparateurPaymentRepository;
+    private final CommissionAllocationRepository commissionAllocationRepository;
+    private final CommissionStatementRepository commissionStatementRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Tolérance de 0.01 MAD pour les arrondis
+    private static final BigDecimal TOLERANCE = new BigDecimal("0.01");
+    private static final int MAX_PAGE_SIZE = 200;
+    // Lignes de réparation renvoyées par le résumé quand aucune page n'est demandée
+    public static final int DEFAULT_LINES_PAGE_SIZE = 50;
 
     @Transactional(readOnly = true)
     public List<CommissionResponse> findByReparateur(Long reparateurId, Instant dateDebut, Instant dateFin) {
@@ -49,116 +85,59 @@ public class CommissionService {
 
     @Transactional(readOnly = true)
     public CommissionSummaryResponse getSummary(Long reparateurId, Instant dateDebut, Instant dateFin) {
+        return getSummary(reparateurId, dateDebut, dateFin, PageRequest.of(0, DEFAULT_LINES_PAGE_SIZE));
+    }
+
+    /**
+     * Résumé des commissions d'un réparateur : les totaux sont agrégés en base sur la période,
+     * les lignes de réparation viennent d'une projection séparée, paginée (200 lignes au plus par page).
+     */
+    @Transactional(readOnly = true)
+    public CommissionSummaryResponse getSummary(Long reparateurId, Instant dateDebut, Instant dateFin, Pageable lignes) {
         try {
             User reparateur = userRepository.findById(reparateurId)
                     .orElseThrow(() -> new RuntimeException("Réparateur introuvable"));
 
-            List<Commission> commissions = commissionRepository.findByReparateurIdWithDetails(reparateurId);
-        
-            List<Commission> filteredCommissions = commissions.stream()
-                    .filter(c -> {
-                        if (dateDebut != null && c.getCreatedAt().isBefore(dateDebut)) return false;
-                        if (dateFin != null && c.getCreatedAt().isAfter(dateFin)) return false;
-                        return true;
-                    })
-                    .collect(Collectors.toList());
-
-            BigDecimal totalReparations = filteredCommissions.isEmpty() ? BigDecimal.ZERO :
-                    filteredCommissions.stream()
-                            .map(c -> c.getPayment() != null ? c.getPayment().getAmount() : BigDecimal.ZERO)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-            BigDecimal totalCommissions = filteredCommissions.isEmpty() ? BigDecimal.ZERO :
-                    filteredCommissions.stream()
-                            .map(Commission::getMontantReparateur)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
+            // Sur tout l'historique, les mois clôturés viennent des relevés figés
+            Optional<CommissionStatement> cloture = dateDebut == null && dateFin == null
+                    ? commissionStatementRepository.findTopByReparateurIdOrderByPeriodeDesc(reparateurId)
+                    : Optional.empty();
+            CommissionTotalsView totaux;
+            BigDecimal totalPaye;
+            if (cloture.isPresent()) {
+                totaux = totauxAvecReleves(reparateurId, cloture.get());
+                totalPaye = commissionStatementRepository.sumByReparateurId(reparateurId).totalPaye()
+                        .add(reparateurPaymentRepository.calculateTotalPayments(reparateurId, periodeOuverte(cloture.get()), null));
+            } else {
+                // Nombre, totaux, somme pondérée et montant en attente calculés en une seule requête
+                totaux = commissionRepository.summarize(reparateurId, dateDebut, dateFin);
 
-        // Calculer les paiements déjà effectués au réparateur pour cette période
-        BigDecimal totalPaye = reparateurPaymentRepository.calculateTotalPayments(
-                reparateurId, dateDebut, dateFin);
-
-        // Récupérer tous les paiements du réparateur pour déterminer quelles commissions sont payées
-        List<ReparateurPayment> allReparateurPayments = reparateurPaymentRepository.findByReparateurAndDateRange(
-                reparateurId, dateDebut, dateFin);
-        
-        // Calculer le montant en attente en se basant sur les commissions non payées
-        BigDecimal montantEnAttente = BigDecimal.ZERO;
-        for (Commission commission : filteredCommissions) {
-            boolean isPaid = false;
-            BigDecimal montantCommission = commission.getMontantReparateur();
-            
-            // Vérifier si cette commission a été payée
-            // On doit vérifier si un paiement couvre cette commission spécifique
-            BigDecimal montantPayePourCetteCommission = BigDecimal.ZERO;
-            for (ReparateurPayment rp : allReparateurPayments) {
-                // Si le paiement est postérieur ou égal à la création de la commission
-                if (rp.getDatePaiement().isAfter(commission.getCreatedAt()) || 
-                    rp.getDatePaiement().equals(commission.getCreatedAt())) {
-                    // Accumuler les paiements pour cette commission
-                    montantPayePourCetteCommission = montantPayePourCetteCommission.add(rp.getMontant());
-                }
-            }
-            
-            // Vérifier si le montant payé couvre cette commission
-            if (montantPayePourCetteCommission.compareTo(montantCommission) >= 0) {
-                BigDecimal difference = montantPayePourCetteCommission.subtract(montantCommission).abs();
-                // Tolérance de 0.01 MAD pour les arrondis
-                if (difference.compareTo(new BigDecimal("0.01")) <= 0 || 
-                    montantPayePourCetteCommission.compareTo(montantCommission) >= 0) {
-                    isPaid = true;
-                }
+                // Calculer les paiements déjà effectués au réparateur pour cette période
+                totalPaye = reparateurPaymentRepository.calculateTotalPayments(reparateurId, dateDebut, dateFin);
             }
-            
-            // Si la commission n'est pas payée, l'ajouter au montant en attente
-            if (!isPaid) {
-                montantEnAttente = montantEnAttente.add(montantCommission);
-            }
-        }
-        
-        // S'assurer que le montant en attente n'est jamais négatif
-        BigDecimal soldeRestant = montantEnAttente.max(BigDecimal.ZERO);
-        
+
         // Calculer le pourcentage moyen pondéré basé sur les commissions réelles de chaque ticket
         // Chaque ticket a son propre pourcentage de commission défini par le propriétaire
-        BigDecimal pourcentageMoyen = BigDecimal.ZERO;
-        if (!filteredCommissions.isEmpty() && totalCommissions.compareTo(BigDecimal.ZERO) > 0) {
-            // Calculer la moyenne pondérée : somme(pourcentage * montant) / somme(montant)
-            BigDecimal sommePondere = filteredCommissions.stream()
-                    .map(c -> {
-                        BigDecimal pourcentageTicket = c.getPourcentageReparateur();
-                        BigDecimal montantCommission = c.getMontantReparateur();
-                        return pourcentageTicket.multiply(montantCommission);
-                    })
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            pourcentageMoyen = sommePondere.divide(totalCommissions, 2, java.math.RoundingMode.HALF_UP);
-        } else {
-            // Si aucune commission, utiliser une valeur par défaut
-            pourcentageMoyen = new BigDecimal("30.00");
-        }
+        BigDecimal pourcentageMoyen = pourcentageMoyen(totaux.sommePourcentagesPonderes(), totaux.totalCommissions());
 
-            List<CommissionSummaryResponse.ReparationItem> reparations = filteredCommissions.stream()
-                    .filter(c -> c.getPayment() != null && c.getPayment().getTicket() != null)
-                    .map(c -> {
-                        Ticket ticket = c.getPayment().getTicket();
-                        // Utiliser le pourcentage de commission du ticket (variable, défini par le propriétaire)
-                        BigDecimal pourcentageTicket = ticket.getCommissionPercentage() != null 
-                            ? ticket.getCommissionPercentage() 
-                            : c.getPourcentageReparateur(); // Fallback sur le pourcentage de la commission si le ticket n'a pas de pourcentage
-                        return new CommissionSummaryResponse.ReparationItem(
-                                ticket.getId(),
-                                ticket.getCode(),
-                                ticket.getRequester() != null 
-                                    ? ticket.getRequester().getFirstName() + " " + ticket.getRequester().getLastName()
-                                    : "Non spécifié",
-                                ticket.getTitle(),
-                                c.getPayment().getAmount(),
-                                ticket.getCreatedAt(),
-                                ticket.getStatus().name(),
-                                pourcentageTicket, // Pourcentage spécifique de ce ticket
-                                c.getMontantReparateur() // Montant de commission calculé pour ce ticket
-                        );
-                    })
+            List<CommissionSummaryResponse.ReparationItem> reparations =
+                    commissionRepository.findLines(reparateurId, dateDebut, dateFin, borner(lignes)).stream()
+                    .map(row -> new CommissionSummaryResponse.ReparationItem(
+                            row.ticketId(),
+                            row.ticketCode(),
+                            row.clientFirstName() != null
+                                ? row.clientFirstName() + " " + row.clientLastName()
+                                : "Non spécifié",
+                            row.ticketTitle(),
+                            row.prixReparation(),
+                            row.ticketCreatedAt(),
+                            row.ticketStatus().name(),
+                            // Pourcentage du ticket, sinon celui de la commission
+                            row.ticketCommissionPercentage() != null
+                                ? row.ticketCommissionPercentage()
+                                : row.pourcentageCommission(),
+                            row.montantCommission() // Montant de commission calculé pour ce ticket
+                    ))
                     .collect(Collectors.toList());
 
             return new CommissionSummaryResponse(
@@ -166,11 +145,11 @@ public class CommissionService {
                     reparateur.getFirstName() + " " + reparateur.getLastName(),
                     reparateur.getPhone() != null ? reparateur.getPhone() : "Non spécifié",
                     reparateur.getSpecialite() != null ? reparateur.getSpecialite() : "Technicien",
-                    filteredCommissions.size(),
-                    totalReparations,
-                    totalCommissions,
+                    totaux.nombreCommissions(),
+                    totaux.totalReparations(),
+                    totaux.totalCommissions(),
                     totalPaye,
-                    soldeRestant,
+                    totaux.montantEnAttente(),
                     pourcentageMoyen, // Pourcentage moyen pondéré basé sur les commissions réelles
                     reparations
             );
@@ -179,6 +158,60 @@ public class CommissionService {
         }
     }
 
+    /**
+     * Totaux d'historique complet : cumul des relevés clôturés + agrégat en direct de la seule période ouverte.
+     * Le reste à payer part du solde reporté par le dernier relevé.
+     */
+    private CommissionTotalsView totauxAvecReleves(Long reparateurId, CommissionStatement dernierReleve) {
+        Instant ouverture = periodeOuverte(dernierReleve);
+        CommissionStatementTotalsView clotures = commissionStatementRepository.sumByReparateurId(reparateurId);
+        CommissionTotalsView ouvert = commissionRepository.summarize(reparateurId, ouverture, null);
+        BigDecimal montantEnAttente = dernierReleve.getSoldeReporte()
+                .add(ouvert.totalCommissions())
+                .subtract(commissionAllocationRepository.sumSoldeesDepuis(reparateurId, ouverture));
+
+        return new CommissionTotalsView(
+                clotures.nombreCommissions() + ouvert.nombreCommissions(),
+                clotures.totalReparations().add(ouvert.totalReparations()),
+                clotures.totalCommissions().add(ouvert.totalCommissions()),
+                clotures.sommePourcentagesPonderes().add(ouvert.sommePourcentagesPonderes()),
+                montantEnAttente
+        );
+    }
+
+    private Pageable borner(Pageable lignes) {
+        if (lignes.isUnpaged()) {
+            return PageRequest.of(0, DEFAULT_LINES_PAGE_SIZE);
+        }
+        return lignes.getPageSize() > MAX_PAGE_SIZE ? PageRequest.of(lignes.getPageNumber(), MAX_PAGE_SIZE) : lignes;
+    }
+
+    private Instant periodeOuverte(CommissionStatement dernierReleve) {
+        return dernierReleve.getDateFin().plus(1, ChronoUnit.MICROS);
+    }
+
+    /**
+     * Soldes de tous les réparateurs pour l'écran du propriétaire : une requête groupée
+     * au lieu d'un résumé complet par réparateur.
+     */
+    @Transactional(readOnly = true)
+    public List<ReparateurBalanceResponse> getBalances(Instant dateDebut, Instant dateFin) {
+        return commissionRepository.summarizeAllReparateurs(dateDebut, dateFin).stream()
+                .map(totaux -> new ReparateurBalanceResponse(
+                        totaux.reparateurId(),
+                        totaux.firstName() + " " + totaux.lastName(),
+                        totaux.phone() != null ? totaux.phone() : "Non spécifié",
+                        totaux.specialite() != null ? totaux.specialite() : "Technicien",
+                        totaux.nombreCommissions(),
+                        totaux.totalReparations(),
+                        totaux.totalCommissions(),
+                        totaux.totalPaye(),
+                        totaux.montantEnAttente(),
+                        pourcentageMoyen(totaux.sommePourcentagesPonderes(), totaux.totalCommissions())
+                ))
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public CommissionResponse recordReparateurPayment(Long reparateurId, ReparateurPaymentRequest request, Long actorId) {
         // Vérifier que le réparateur existe
@@ -200,6 +233,8 @@ public class CommissionService {
                 .build();
 
         reparateurPaymentRepository.save(payment);
+        allocatePayout(payment);
+        eventPublisher.publishEvent(CommissionsChangedEvent.of(reparateurId));
 
         // Retourner une réponse de confirmation
         return new CommissionResponse(
@@ -244,7 +279,6 @@ public class CommissionService {
                 .collect(Collectors.toList());
     }
 
-    @CacheEvict(value = {"commissions", "commissionsSummary"}, allEntries = true)
     @Transactional
     public ReparateurPaymentDetailResponse payCommission(Long commissionId, ReparateurPaymentRequest request, Long actorId) {
         log.debug("Paiement commission - ID: {}, Montant: {}, Mode: {}", commissionId, request.montant(), request.modePaiement());
@@ -254,6 +288,10 @@ public class CommissionService {
                     .orElseThrow(() -> new BusinessException("Commission introuvable avec l'ID: " + commissionId));
             
             log.debug("Commission trouvée: ID={}, Montant={}", commission.getId(), commission.getMontantReparateur());
+
+            if (commissionAllocationRepository.existsByCommissionId(commissionId)) {
+                throw new BusinessException("La commission " + commissionId + " a déjà été payée");
+            }
             
             // Utiliser le montant de la commission (pas celui de la requête pour éviter les erreurs)
             BigDecimal montantCommission = commission.getMontantReparateur();
@@ -261,7 +299,7 @@ public class CommissionService {
             
             // Vérifier que le montant correspond (ou est proche) - tolérance de 0.01 MAD
             BigDecimal difference = montantCommission.subtract(montantPaye).abs();
-            if (difference.compareTo(new BigDecimal("0.01")) > 0) {
+            if (difference.compareTo(TOLERANCE) > 0) {
                 log.error("Montant ne correspond pas - Commission: {}, Payé: {}", montantCommission, montantPaye);
                 throw new BusinessException(
                     String.format("Le montant payé (%.2f MAD) ne correspond pas au montant de la commission (%.2f MAD)", 
@@ -285,154 +323,146 @@ public class CommissionService {
                     .build();
             
             reparateurPaymentRepository.save(payment);
+            CommissionAllocation allocation = allocate(commission, payment, montantCommission);
             log.info("Paiement commission sauvegardé - ID: {}, Commission ID: {}, Montant: {}", 
                      payment.getId(), commissionId, montantCommission);
+            eventPublisher.publishEvent(CommissionsChangedEvent.of(commission.getReparateur().getId()));
             
-            // Recharger les détails pour retourner la réponse mise à jour
-            List<ReparateurPaymentDetailResponse> details = getReparateurPaymentDetails(commission.getReparateur().getId(), null, null);
-            log.debug("Détails rechargés: {} commissions", details.size());
-            
-            return details.stream()
-                    .filter(detail -> detail.commissionId().equals(commissionId))
-                    .findFirst()
-                    .orElseThrow(() -> {
-                        log.error("Commission non trouvée dans les détails après paiement - ID: {}", commissionId);
-                        return new BusinessException("Erreur lors de la mise à jour du statut");
-                    });
+            return toDetailResponse(commission, allocation.getDatePaiement());
         } catch (Exception e) {
             log.error("Erreur lors du paiement de la commission - ID: {}", commissionId, e);
             throw e;
         }
     }
 
-    @Cacheable(value = "commissions", key = "#reparateurId + '_' + (#dateDebut != null ? #dateDebut.toString() : 'null') + '_' + (#dateFin != null ? #dateFin.toString() : 'null')")
+    /**
+     * Règle en une transaction une liste de commissions (ou toutes celles en attente jusqu'à une date).
+     * Un paiement est créé par réparateur, les affectations sont insérées par lots JDBC,
+     * et les commissions déjà payées sont écartées directement par la requête.
+     */
+    @Transactional
+    public CommissionBatchPaymentResponse payCommissions(CommissionBatchPaymentRequest request, Long actorId) {
+        boolean parIdentifiants = request.commissionIds() != null && !request.commissionIds().isEmpty();
+        if (!parIdentifiants && request.jusquA() == null) {
+            throw new BusinessException("Indiquer les commissions à payer ou une date limite");
+        }
+
+        User actor = userRepository.findById(actorId)
+                .orElseThrow(() -> new BusinessException("Utilisateur introuvable avec l'ID: " + actorId));
+
+        Set<Long> demandees = parIdentifiants ? new LinkedHashSet<>(request.commissionIds()) : Set.of();
+        List<Commission> aPayer = parIdentifiants
+                ? commissionRepository.findUnallocatedByIds(demandees)
+                : commissionRepository.findUnallocatedUpTo(request.reparateurId(), request.jusquA());
+
+        Instant datePaiement = Instant.now();
+        Map<Long, List<Commission>> parReparateur = aPayer.stream()
+                .collect(Collectors.groupingBy(c -> c.getReparateur().getId(), LinkedHashMap::new, Collectors.toList()));
+
+        List<CommissionAllocation> allocations = new ArrayList<>(aPayer.size());
+        List<CommissionBatchPaymentResponse.Versement> versements = new ArrayList<>(parReparateur.size());
+        BigDecimal montantTotal = BigDecimal.ZERO;
+        for (List<Commission> commissions : parReparateur.values()) {
+            BigDecimal montant = commissions.stream()
+                    .map(Commission::getMontantReparateur)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            ReparateurPayment payment = reparateurPaymentRepository.save(ReparateurPayment.builder()
+                    .reparateur(commissions.get(0).getReparateur())
+                    .montant(montant)
+                    .modePaiement(request.modePaiement())
+                    .datePaiement(datePaiement)
+                    .commentaire(request.commentaire())
+                    .effectuePar(actor)
+                    .build());
+            for (Commission commission : commissions) {
+                allocations.add(CommissionAllocation.builder()
+                        .commission(commission)
+                        .reparateurPayment(payment)
+                        .reparateur(payment.getReparateur())
+                        .montant(commission.getMontantReparateur())
+                        .datePaiement(datePaiement)
+                        .build());
+            }
+            versements.add(new CommissionBatchPaymentResponse.Versement(
+                    payment.getId(), payment.getReparateur().getId(), commissions.size(), montant));
+            montantTotal = montantTotal.add(montant);
+        }
+        try {
+            commissionAllocationRepository.insertAll(allocations);
+        } catch (DataIntegrityViolationException e) {
+            // Dernier rempart (uk_commission_allocation_commission) si une commission a été soldée entre-temps
+            throw new BusinessException("Certaines commissions viennent d'être payées par une autre opération, veuillez réessayer");
+        }
+        eventPublisher.publishEvent(new CommissionsChangedEvent(Set.copyOf(parReparateur.keySet())));
+
+        List<Long> ignorees = new ArrayList<>(demandees);
+        aPayer.forEach(c -> ignorees.remove(c.getId()));
+        log.info("Paiement groupé - {} commissions, {} réparateurs, Montant: {}, Ignorées: {}",
+                 aPayer.size(), versements.size(), montantTotal, ignorees.size());
+
+        return new CommissionBatchPaymentResponse(aPayer.size(), montantTotal, datePaiement, versements, ignorees);
+    }
+
+    /**
+     * sync = true : les appels concurrents sur une même clé absente attendent un seul chargement
+     */
+    @Cacheable(value = "commissions", sync = true,
+               key = "#reparateurId + '_' + (#dateDebut != null ? #dateDebut.toString() : 'null') + '_' + (#dateFin != null ? #dateFin.toString() : 'null')")
     @Transactional(readOnly = true)
     public List<ReparateurPaymentDetailResponse> getReparateurPaymentDetails(Long reparateurId, Instant dateDebut, Instant dateFin) {
+        return loadReparateurPaymentDetails(reparateurId, dateDebut, dateFin);
+    }
+
+    /**
+     * Chargement sans passer par le cache (utilisé aussi par le rafraîchissement anticipé).
+     * Les dates sont filtrées en base sur une projection. Sans période et avec un mois clôturé,
+     * l'historique clôturé est porté par les relevés : on ne relit que les lignes de la période ouverte
+     * et les commissions des mois clôturés encore dues (le solde reporté).
+     */
+    @Transactional(readOnly = true)
+    public List<ReparateurPaymentDetailResponse> loadReparateurPaymentDetails(Long reparateurId, Instant dateDebut, Instant dateFin) {
         log.debug("Récupération détails paiements réparateur - ID: {}, Date début: {}, Date fin: {}", 
                   reparateurId, dateDebut, dateFin);
         try {
-            List<Commission> commissions = commissionRepository.findByReparateurIdWithDetails(reparateurId);
-            log.debug("Commissions trouvées: {}", commissions.size());
-            
-            if (commissions.isEmpty()) {
-                log.debug("Aucune commission trouvée pour le réparateur {}", reparateurId);
-                return List.of(); // Retourner une liste vide si aucune commission
+            Optional<CommissionStatement> cloture = dateDebut == null && dateFin == null
+                    ? commissionStatementRepository.findTopByReparateurIdOrderByPeriodeDesc(reparateurId)
+                    : Optional.empty();
+
+            List<CommissionLineView> lignes = new ArrayList<>();
+            if (cloture.isPresent()) {
+                lignes.addAll(commissionRepository.findPendingLines(
+                        reparateurId, null, cloture.get().getDateFin(), null, null, Pageable.unpaged()));
+                lignes.addAll(findLinesOldestFirst(reparateurId, periodeOuverte(cloture.get()), null));
+            } else {
+                lignes.addAll(findLinesOldestFirst(reparateurId, dateDebut, dateFin));
             }
-            
-            // Filtrer par date si fourni
-            List<Commission> filteredCommissions = commissions.stream()
-                    .filter(c -> {
-                        if (dateDebut != null && c.getCreatedAt().isBefore(dateDebut)) return false;
-                        if (dateFin != null && c.getCreatedAt().isAfter(dateFin)) return false;
-                        return true;
-                    })
+            log.debug("Commissions trouvées: {}", lignes.size());
+
+            if (lignes.isEmpty()) {
+                return List.of();
+            }
+
+            // Dates de paiement des seules commissions lues, dans le registre d'affectation
+            Map<Long, Instant> datesPaiement = commissionAllocationRepository.findByCommissionIdIn(
+                    lignes.stream().map(CommissionLineView::commissionId).collect(Collectors.toList())).stream()
+                    .collect(Collectors.toMap(a -> a.getCommission().getId(), CommissionAllocation::getDatePaiement));
+
+            return lignes.stream()
+                    .map(row -> toDetailResponse(row, datesPaiement.get(row.commissionId())))
                     .collect(Collectors.toList());
-        
-        // Récupérer tous les paiements du réparateur triés par date (plus ancien en premier)
-        List<ReparateurPayment> reparateurPayments = reparateurPaymentRepository.findByReparateurId(reparateurId)
-                .stream()
-                .sorted((a, b) -> a.getDatePaiement().compareTo(b.getDatePaiement()))
-                .collect(Collectors.toList());
-        
-        // Créer une liste pour suivre les paiements déjà utilisés
-        java.util.Set<Long> paiementsUtilises = new java.util.HashSet<>();
-        
-        return filteredCommissions.stream()
-                .sorted((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt())) // Trier par date de création (plus ancien en premier)
-                .map(commission -> {
-                    Payment payment = commission.getPayment();
-                    Ticket ticket = payment.getTicket();
-                    User client = ticket != null && ticket.getRequester() != null ? ticket.getRequester() : null;
-                    
-                    // Extraire le type d'appareil
-                    String appareilType = extractAppareilType(ticket != null ? ticket.getTitle() : null);
-                    
-                    // Déterminer le statut de paiement du réparateur
-                    // Chercher si cette commission a été payée en faisant correspondre le montant exact
-                    Instant datePaiementReparateur = null;
-                    String statutPaiementReparateur = "EN_ATTENTE";
-                    BigDecimal montantCommission = commission.getMontantReparateur();
-                    
-                    // Chercher un paiement qui correspond à cette commission spécifique
-                    // Critères : 
-                    // 1. Le paiement doit être postérieur ou égal à la création de la commission
-                    // 2. Le montant doit correspondre (avec tolérance de 0.01 MAD)
-                    // 3. Le paiement ne doit pas avoir été déjà utilisé pour une autre commission
-                    for (ReparateurPayment rp : reparateurPayments) {
-                        if (paiementsUtilises.contains(rp.getId())) {
-                            continue; // Ce paiement a déjà été utilisé
-                        }
-                        
-                        // Vérifier que le paiement est postérieur ou égal à la création de la commission
-                        if (rp.getDatePaiement().isBefore(commission.getCreatedAt())) {
-                            continue; // Le paiement est antérieur à la commission, on passe
-                        }
-                        
-                        // Vérifier que le montant correspond (avec tolérance)
-                        BigDecimal difference = montantCommission.subtract(rp.getMontant()).abs();
-                        if (difference.compareTo(new BigDecimal("0.01")) <= 0) {
-                            // Correspondance trouvée !
-                            datePaiementReparateur = rp.getDatePaiement();
-                            statutPaiementReparateur = "PAYE";
-                            paiementsUtilises.add(rp.getId()); // Marquer ce paiement comme utilisé
-                            log.trace("Commission {} (montant: {}) correspond au paiement {} (montant: {})", 
-                                     commission.getId(), montantCommission, rp.getId(), rp.getMontant());
-                            break;
-                        }
-                    }
-                    
-                    if (statutPaiementReparateur.equals("EN_ATTENTE")) {
-                        log.trace("Commission {} (montant: {}) n'a pas de paiement correspondant - EN_ATTENTE", 
-                                 commission.getId(), montantCommission);
-                    }
-                    
-                    return new ReparateurPaymentDetailResponse(
-                            commission.getId(),
-                            ticket != null ? ticket.getId() : null,
-                            ticket != null ? ticket.getCode() : null,
-                            client != null ? client.getFirstName() : null,
-                            client != null ? client.getLastName() : null,
-                            appareilType,
-                            ticket != null ? ticket.getCreatedAt() : commission.getCreatedAt(),
-                            payment.getAmount(),
-                            commission.getPourcentageReparateur(),
-                            commission.getMontantReparateur(),
-                            payment.getStatus(),
-                            statutPaiementReparateur,
-                            datePaiementReparateur
-                    );
-                })
-                .collect(Collectors.toList());
         } catch (Exception e) {
             throw new BusinessException("Erreur lors de la récupération des détails de paiement: " + e.getMessage());
         }
     }
-    
-    private String extractAppareilType(String title) {
-        if (title == null || title.isEmpty()) {
-            return "Non spécifié";
-        }
-        
-        String lowerTitle = title.toLowerCase();
-        if (lowerTitle.contains("téléphone") || lowerTitle.contains("telephone") || lowerTitle.contains("phone") || lowerTitle.contains("smartphone")) {
-            return "Téléphone";
-        } else if (lowerTitle.contains("ordinateur") || lowerTitle.contains("pc") || lowerTitle.contains("laptop")) {
-            return "Ordinateur";
-        } else if (lowerTitle.contains("tv") || lowerTitle.contains("télévision") || lowerTitle.contains("television")) {
-            return "TV";
-        } else if (lowerTitle.contains("tablette") || lowerTitle.contains("tablet")) {
-            return "Tablette";
-        } else if (lowerTitle.contains("écran") || lowerTitle.contains("ecran") || lowerTitle.contains("screen")) {
-            return "Écran";
-        } else if (lowerTitle.contains("imprimante") || lowerTitle.contains("printer")) {
-            return "Imprimante";
-        } else if (lowerTitle.contains("réfrigérateur") || lowerTitle.contains("refrigerateur") || lowerTitle.contains("frigo")) {
-            return "Réfrigérateur";
-        } else if (lowerTitle.contains("lave-linge") || lowerTitle.contains("machine à laver")) {
-            return "Lave-linge";
-        } else {
-            return "Autre";
-        }
+
+    /**
+     * Lignes d'une période, plus anciennes d'abord (findLines les renvoie plus récentes d'abord)
+     */
+    private List<CommissionLineView> findLinesOldestFirst(Long reparateurId, Instant dateDebut, Instant dateFin) {
+        List<CommissionLineView> lignes = new ArrayList<>(
+                commissionRepository.findLines(reparateurId, dateDebut, dateFin, Pageable.unpaged()));
+        Collections.reverse(lignes);
+        return lignes;
     }
 
     private CommissionResponse toResponse(Commission commission) {
@@ -459,60 +489,152 @@ public class CommissionService {
         );
     }
 
+    /**
+     * Commissions non payées, calculées en base par anti-jointure sur le registre d'affectation.
+     * Pagination par clé sur (createdAt, id) : les plus anciennes dettes d'abord.
+     */
     @Transactional(readOnly = true)
-    public List<ReparateurPaymentDetailResponse> getPendingPayments() {
-        // Récupérer toutes les commissions
-        List<Commission> allCommissions = commissionRepository.findAll();
+    public CursorPage<ReparateurPaymentDetailResponse> getPendingPayments(Long reparateurId, Instant dateDebut, Instant dateFin,
+                                                                          String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<CommissionLineView> rows = commissionRepository.findPendingLines(
+                reparateurId, dateDebut, dateFin,
+                position != null ? position.instant() : null,
+                position != null ? position.id() : null,
+                PageRequest.of(0, pageSize + 1));
+        log.debug("Commissions en attente lues: {} (réparateur: {})", rows.size(), reparateurId);
+
+        return CursorPage.of(rows, pageSize, row -> new KeysetCursor(row.commissionCreatedAt(), row.commissionId()))
+                .map(row -> toDetailResponse(row, null));
+    }
+
+    /**
+     * Rapproche les paiements antérieurs au registre d'affectation, au démarrage.
+     * Sont concernés les paiements sans affectation enregistrés avant la première affectation du registre
+     * (tous tant que le registre est vide) : les paiements saisis depuis, affectés par allocatePayout,
+     * ne sont jamais repris. Reprend les règles de l'ancien calcul : paiement postérieur à la commission,
+     * montant identique à 0.01 MAD près, chaque paiement ne soldant qu'une commission.
+     * Idempotent : un paiement rapproché n'est plus sans affectation, les autres ne trouvent pas de nouvelle commission.
+     */
+    @Transactional
+    public int backfillAllocations() {
+        Instant miseEnService = commissionAllocationRepository.findEarliestCreatedAt();
+        List<ReparateurPayment> enAttente = reparateurPaymentRepository.findUnallocatedCreatedBefore(miseEnService);
+        if (enAttente.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<ReparateurPayment>> paiementsParReparateur = enAttente.stream()
+                .collect(Collectors.groupingBy(rp -> rp.getReparateur().getId(), LinkedHashMap::new, Collectors.toList()));
+
+        int affectations = 0;
+        for (Map.Entry<Long, List<ReparateurPayment>> entry : paiementsParReparateur.entrySet()) {
+            List<ReparateurPayment> disponibles = new ArrayList<>(entry.getValue());
+            for (Commission commission : commissionRepository.findUnallocatedByReparateurId(entry.getKey())) {
+                Iterator<ReparateurPayment> iterator = disponibles.iterator();
+                while (iterator.hasNext()) {
+                    ReparateurPayment rp = iterator.next();
+                    if (rp.getDatePaiement().isBefore(commission.getCreatedAt())) {
+                        continue;
+                    }
+                    if (commission.getMontantReparateur().subtract(rp.getMontant()).abs().compareTo(TOLERANCE) <= 0) {
+                        allocate(commission, rp, commission.getMontantReparateur());
+                        iterator.remove();
+                        affectations++;
+                        break;
+                    }
+                }
+            }
+        }
+        if (affectations > 0) {
+            log.info("Registre d'affectation initialisé: {} commissions rapprochées sur {} paiements antérieurs",
+                    affectations, enAttente.size());
+        }
+        return affectations;
+    }
+
+    /**
+     * Affecte un paiement libre aux commissions non soldées les plus anciennes qu'il couvre entièrement.
+     * Le reliquat éventuel reste un avoir non affecté.
+     */
+    private void allocatePayout(ReparateurPayment payment) {
+        BigDecimal restant = payment.getMontant();
+        for (Commission commission : commissionRepository.findUnallocatedByReparateurId(payment.getReparateur().getId())) {
+            BigDecimal montantCommission = commission.getMontantReparateur();
+            if (commission.getCreatedAt().isAfter(payment.getDatePaiement())
+                    || montantCommission.subtract(restant).compareTo(TOLERANCE) > 0) {
+                break;
+            }
+            allocate(commission, payment, montantCommission.min(restant));
+            restant = restant.subtract(montantCommission).max(BigDecimal.ZERO);
+        }
+    }
+
+    private CommissionAllocation allocate(Commission commission, ReparateurPayment payment, BigDecimal montant) {
+        CommissionAllocation allocation = CommissionAllocation.builder()
+                .commission(commission)
+                .reparateurPayment(payment)
+                .reparateur(payment.getReparateur())
+                .montant(montant)
+                .datePaiement(payment.getDatePaiement())
+                .build();
+        return commissionAllocationRepository.save(allocation);
+    }
+
+    /**
+     * Moyenne pondérée : somme(pourcentage * montant) / somme(montant), 30% par défaut sans commission
+     */
+    private BigDecimal pourcentageMoyen(BigDecimal sommePourcentagesPonderes, BigDecimal totalCommissions) {
+        if (totalCommissions.compareTo(BigDecimal.ZERO) <= 0) {
+            return new BigDecimal("30.00");
+        }
+        return sommePourcentagesPonderes.divide(totalCommissions, 2, RoundingMode.HALF_UP);
+    }
+
+    private ReparateurPaymentDetailResponse toDetailResponse(CommissionLineView row, Instant datePaiementReparateur) {
+        return new ReparateurPaymentDetailResponse(
+                row.commissionId(),
+                row.ticketId(),
+                row.ticketCode(),
+                row.clientFirstName(),
+                row.clientLastName(),
+                appareilLabel(row.ticketAppareilType()),
+                row.ticketCreatedAt() != null ? row.ticketCreatedAt() : row.commissionCreatedAt(),
+                row.prixReparation(),
+                row.pourcentageCommission(),
+                row.montantCommission(),
+                row.statutPaiementClient(),
+                datePaiementReparateur != null ? "PAYE" : "EN_ATTENTE",
+                datePaiementReparateur
+        );
+    }
+
+    private ReparateurPaymentDetailResponse toDetailResponse(Commission commission, Instant datePaiementReparateur) {
+        Payment payment = commission.getPayment();
+        Ticket ticket = payment.getTicket();
+        User client = ticket != null && ticket.getRequester() != null ? ticket.getRequester() : null;
         
-        // Récupérer tous les paiements aux réparateurs
-        List<ReparateurPayment> allPayments = reparateurPaymentRepository.findAll();
+        // Type d'appareil classé à l'enregistrement du ticket
+        String appareilType = appareilLabel(ticket != null ? ticket.getAppareilType() : null);
         
-        // Filtrer les commissions qui n'ont pas encore été payées
-        return allCommissions.stream()
-                .filter(commission -> {
-                    // Vérifier si cette commission a été payée
-                    BigDecimal montantCommission = commission.getMontantReparateur();
-                    Instant dateCreationCommission = commission.getCreatedAt();
-                    
-                    for (ReparateurPayment rp : allPayments) {
-                        if (rp.getReparateur().getId().equals(commission.getReparateur().getId())) {
-                            // Vérifier que le paiement est postérieur à la création de la commission
-                            if (rp.getDatePaiement().isAfter(dateCreationCommission) || 
-                                rp.getDatePaiement().equals(dateCreationCommission)) {
-                                // Vérifier que le montant correspond
-                                BigDecimal difference = montantCommission.subtract(rp.getMontant()).abs();
-                                if (difference.compareTo(new BigDecimal("0.01")) <= 0) {
-                                    return false; // Cette commission a été payée
-                                }
-                            }
-                        }
-                    }
-                    return true; // Cette commission n'a pas été payée
-                })
-                .map(commission -> {
-                    Payment payment = commission.getPayment();
-                    Ticket ticket = payment.getTicket();
-                    User client = ticket != null && ticket.getRequester() != null ? ticket.getRequester() : null;
-                    
-                    String appareilType = extractAppareilType(ticket != null ? ticket.getTitle() : null);
-                    
-                    return new ReparateurPaymentDetailResponse(
-                            commission.getId(),
-                            ticket != null ? ticket.getId() : null,
-                            ticket != null ? ticket.getCode() : null,
-                            client != null ? client.getFirstName() : null,
-                            client != null ? client.getLastName() : null,
-                            appareilType,
-                            ticket != null ? ticket.getCreatedAt() : commission.getCreatedAt(),
-                            payment.getAmount(),
-                            commission.getPourcentageReparateur(),
-                            commission.getMontantReparateur(),
-                            payment.getStatus(),
-                            "EN_ATTENTE",
-                            null
-                    );
-                })
-                .collect(Collectors.toList());
+        return new ReparateurPaymentDetailResponse(
+                commission.getId(),
+                ticket != null ? ticket.getId() : null,
+                ticket != null ? ticket.getCode() : null,
+                client != null ? client.getFirstName() : null,
+                client != null ? client.getLastName() : null,
+                appareilType,
+                ticket != null ? ticket.getCreatedAt() : commission.getCreatedAt(),
+                payment.getAmount(),
+                commission.getPourcentageReparateur(),
+                commission.getMontantReparateur(),
+                payment.getStatus(),
+                datePaiementReparateur != null ? "PAYE" : "EN_ATTENTE",
+                datePaiementReparateur
+        );
     }
-}
 
+    private static String appareilLabel(AppareilType type) {
+        return type != null ? type.getLabel() : AppareilType.NON_SPECIFIE;
+    }
+}
@@ -0,0 +1,147 @@
+package com.centrecommercial.service;
+
+import com.centrecommercial.domain.commission.CommissionStatement;
+import com.centrecommercial.dto.commission.ReparateurMontantView;
+import com.centrecommercial.dto.commission.ReparateurTotalsView;
+import com.centrecommercial.exception.BusinessException;
+import com.centrecommercial.repository.CommissionAllocationRepository;
+import com.centrecommercial.repository.CommissionRepository;
+import com.centrecommercial.repository.CommissionStatementRepository;
+import com.centrecommercial.repository.UserRepository;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Clôture mensuelle des commissions : fige un relevé par mois terminé pour chaque réparateur ayant eu
+ * des commissions, des paiements ou des affectations dans le mois.
+ * Les mois sont clôturés dans l'ordre, le reste à payer de chaque relevé étant reporté sur le suivant.
+ */
+@Slf4j
+@Service
+public class CommissionStatementService {
+
+    private final CommissionStatementRepository commissionStatementRepository;
+    private final CommissionRepository commissionRepository;
+    private final CommissionAllocationRepository commissionAllocationRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ZoneId zone;
+
+    public CommissionStatementService(
+            CommissionStatementRepository commissionStatementRepository,
+            CommissionRepository commissionRepository,
+            CommissionAllocationRepository commissionAllocationRepository,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.commissions.cloture.zone:UTC}") ZoneId zone
+    ) {
+        this.commissionStatementRepository = commissionStatementRepository;
+        this.commissionRepository = commissionRepository;
+        this.commissionAllocationRepository = commissionAllocationRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.zone = zone;
+    }
+
+    /**
+     * Clôture le mois précédent (et rattrape les mois non clôturés) le 1er de chaque mois
+     */
+    @Scheduled(cron = "${app.commissions.cloture.cron:0 30 2 1 * *}", zone = "${app.commissions.cloture.zone:UTC}")
+    public void cloturerMoisPrecedent() {
+        cloturerJusqua(YearMonth.now(zone).minusMonths(1));
+    }
+
+    /**
+     * Clôture tous les mois non encore clôturés jusqu'au mois donné inclus, chacun dans sa propre transaction.
+     * Idempotent : un mois déjà clôturé, y compris par une clôture concurrente (tâche planifiée et appel manuel),
+     * est ignoré au lieu d'échouer sur uk_commission_statement_periode.
+     *
+     * @return le nombre de relevés créés par cet appel
+     */
+    public int cloturerJusqua(YearMonth dernierMois) {
+        if (!dernierMois.isBefore(YearMonth.now(zone))) {
+            throw new BusinessException("Seules les périodes terminées peuvent être clôturées");
+        }
+
+        YearMonth mois;
+        Optional<CommissionStatement> derniere = commissionStatementRepository.findTopByOrderByPeriodeDesc();
+        if (derniere.isPresent()) {
+            mois = YearMonth.from(derniere.get().getPeriode()).plusMonths(1);
+        } else {
+            Instant premiereCommission = commissionRepository.findEarliestCreatedAt();
+            if (premiereCommission == null) {
+                return 0;
+            }
+            mois = YearMonth.from(premiereCommission.atZone(zone));
+        }
+
+        int releves = 0;
+        for (; !mois.isAfter(dernierMois); mois = mois.plusMonths(1)) {
+            YearMonth periode = mois;
+            try {
+                int crees = transactionTemplate.execute(status -> cloturer(periode));
+                releves += crees;
+                log.info("Période {} clôturée ({} relevés)", periode, crees);
+            } catch (DataIntegrityViolationException e) {
+                log.info("Période {} clôturée par une autre opération", periode);
+            }
+        }
+        return releves;
+    }
+
+    private int cloturer(YearMonth mois) {
+        LocalDate periode = mois.atDay(1);
+        if (commissionStatementRepository.existsByPeriode(periode)) {
+            return 0;
+        }
+        Instant dateDebut = periode.atStartOfDay(zone).toInstant();
+        // Bornes inclusives des requêtes existantes : la période s'arrête une microseconde avant le mois suivant
+        Instant dateFin = mois.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant().minus(1, ChronoUnit.MICROS);
+
+        // Solde reporté par le dernier relevé de chaque réparateur, même s'il n'a pas eu d'activité le mois précédent
+        Map<Long, BigDecimal> soldesReportes = commissionStatementRepository.findLatestBefore(periode).stream()
+                .collect(Collectors.toMap(s -> s.getReparateur().getId(), CommissionStatement::getSoldeReporte));
+        Map<Long, BigDecimal> soldees = commissionAllocationRepository.sumSoldeesParReparateur(dateDebut, dateFin).stream()
+                .collect(Collectors.toMap(ReparateurMontantView::reparateurId, ReparateurMontantView::montant));
+
+        List<CommissionStatement> releves = new ArrayList<>();
+        for (ReparateurTotalsView totaux : commissionRepository.summarizeReparateursForPeriod(dateDebut, dateFin)) {
+            BigDecimal montantSolde = soldees.getOrDefault(totaux.reparateurId(), BigDecimal.ZERO);
+            BigDecimal soldeReporte = soldesReportes.getOrDefault(totaux.reparateurId(), BigDecimal.ZERO)
+                    .add(totaux.totalCommissions())
+                    .subtract(montantSolde);
+
+            releves.add(CommissionStatement.builder()
+                    .reparateur(userRepository.getReferenceById(totaux.reparateurId()))
+                    .periode(periode)
+                    .dateDebut(dateDebut)
+                    .dateFin(dateFin)
+                    .nombreCommissions(totaux.nombreCommissions())
+                    .totalReparations(totaux.totalReparations())
+                    .totalCommissions(totaux.totalCommissions())
+                    .sommePourcentagesPonderes(totaux.sommePourcentagesPonderes())
+                    .totalPaye(totaux.totalPaye())
+                    .montantSolde(montantSolde)
+                    .soldeReporte(soldeReporte)
+                    .build());
+        }
+        commissionStatementRepository.saveAllAndFlush(releves);
+        return releves.size();
+    }
+}
@@ -0,0 +1,33 @@
+package com.centrecommercial.service;
+
+import com.centrecommercial.config.CacheReloader;
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rafraîchissement anticipé des détails de paiement d'un réparateur.
+ * La clé suit le format de CommissionService.getReparateurPaymentDetails : "reparateurId_dateDebut_dateFin".
+ */
+@Component
+@RequiredArgsConstructor
+public class CommissionsCacheReloader implements CacheReloader {
+
+    private final CommissionService commissionService;
+
+    @Override
+    public String cacheName() {
+        return "commissions";
+    }
+
+    @Override
+    public Object reload(Object key) {
+        String[] parts = key.toString().split("_", 3);
+        return commissionService.loadReparateurPaymentDetails(
+                Long.valueOf(parts[0]), toInstant(parts[1]), toInstant(parts[2]));
+    }
+
+    private Instant toInstant(String value) {
+        return "null".equals(value) ? null : Instant.parse(value);
+    }
+}
@@ -34,6 +34,10 @@ public class DashboardService {
         ticketRepository.findTop5ByOrderByUpdatedAtDesc()
                 .forEach(ticket -> actions.put(ticket.getUpdatedAt(), ticket.getId()));
 
+        Map<String, Long> parAppareil = new LinkedHashMap<>();
+        ticketRepository.countByAppareilType()
+                .forEach(ligne -> parAppareil.put(ligne.appareilType().getLabel(), ligne.nombre()));
+
         return new DashboardResponse(
                 enAttente,
                 enCours,
@@ -41,7 +45,8 @@ public class DashboardService {
                 rejete,
                 montantTotal,
                 List.of(),
-                actions
+                actions,
+                parAppareil
         );
     }
 }
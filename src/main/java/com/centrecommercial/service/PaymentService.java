@@ -3,6 +3,7 @@ package com.centrecommercial.service;
 import com.centrecommercial.domain.commission.Commission;
 import com.centrecommercial.domain.payment.Payment;
 import com.centrecommercial.domain.payment.PaymentStatus;
+import com.centrecommercial.domain.ticket.AppareilType;
 import com.centrecommercial.domain.ticket.Ticket;
 import com.centrecommercial.domain.user.RoleType;
 import com.centrecommercial.domain.user.User;
@@ -10,6 +11,7 @@ import com.centrecommercial.dto.payment.PaymentDetailResponse;
 import com.centrecommercial.dto.payment.PaymentRequest;
 import com.centrecommercial.dto.payment.PaymentResponse;
 import com.centrecommercial.dto.payment.PaymentValidationRequest;
+import com.centrecommercial.event.PaymentChangedEvent;
 import com.centrecommercial.exception.BusinessException;
 import com.centrecommercial.exception.NotFoundException;
 import com.centrecommercial.repository.CommissionRepository;
@@ -22,8 +24,8 @@ import java.time.Instant;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,8 +36,10 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final UserRepository userRepository;
+    private final ProprietaireResolver proprietaireResolver;
     private final TicketRepository ticketRepository;
     private final CommissionRepository commissionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<PaymentResponse> findByUser(Long userId) {
         return paymentRepository.findByUserId(userId).stream().map(this::toResponse).toList();
@@ -45,9 +49,17 @@ public class PaymentService {
         return paymentRepository.findByTicketId(ticketId).stream().map(this::toResponse).toList();
     }
 
-    @Cacheable(value = "payments", key = "'all'")
+    @Cacheable(value = "payments", key = "'all'", sync = true)
     @Transactional(readOnly = true)
     public List<PaymentDetailResponse> findAllWithDetails() {
+        return loadAllWithDetails();
+    }
+
+    /**
+     * Chargement sans passer par le cache (utilisé aussi par le rafraîchissement anticipé)
+     */
+    @Transactional(readOnly = true)
+    public List<PaymentDetailResponse> loadAllWithDetails() {
         log.debug("Récupération de tous les paiements avec détails");
         try {
             List<Payment> payments = paymentRepository.findAllWithDetails();
@@ -61,7 +73,6 @@ public class PaymentService {
         }
     }
 
-    @CacheEvict(value = {"payments", "commissions", "commissionsSummary"}, allEntries = true)
     @Transactional
     public PaymentResponse create(Long userId, PaymentRequest request) {
         log.debug("Création paiement - User ID: {}, Montant: {}", userId, request.amount());
@@ -79,10 +90,10 @@ public class PaymentService {
         payment.setUser(user);
         Payment saved = paymentRepository.save(payment);
         log.info("Paiement créé avec succès - ID: {}, Montant: {}", saved.getId(), saved.getAmount());
+        eventPublisher.publishEvent(paymentChanged(saved));
         return toResponse(saved);
     }
 
-    @CacheEvict(value = {"payments", "commissions", "commissionsSummary"}, allEntries = true)
     @Transactional
     public PaymentResponse validate(Long paymentId, PaymentValidationRequest request, Long validatorId) {
         log.debug("Validation paiement - ID: {}, Statut: {}, Validateur: {}", paymentId, request.status(), validatorId);
@@ -113,6 +124,7 @@ public class PaymentService {
             
             Payment saved = paymentRepository.save(payment);
             log.info("Paiement validé avec succès - ID: {}, Statut: {}", saved.getId(), saved.getStatus());
+            eventPublisher.publishEvent(paymentChanged(saved));
             return toResponse(saved);
         } catch (Exception e) {
             log.error("Erreur lors de la validation du paiement ID: {}", paymentId, e);
@@ -129,13 +141,8 @@ public class PaymentService {
             throw new BusinessException("Aucun réparateur assigné au ticket");
         }
         
-        // Récupérer le propriétaire (chercher un utilisateur avec le rôle PROPRIETAIRE)
-        // Pour simplifier, on prend le premier propriétaire trouvé
-        // Dans un vrai système, il faudrait lier le ticket à un magasin qui a un propriétaire
-        User proprietaire = userRepository.findAll().stream()
-                .filter(u -> u.hasRole(RoleType.ROLE_PROPRIETAIRE))
-                .findFirst()
-                .orElseThrow(() -> new BusinessException("Aucun propriétaire trouvé dans le système"));
+        // Récupérer le propriétaire (ID en cache, référence sans chargement de l'utilisateur)
+        User proprietaire = userRepository.getReferenceById(proprietaireResolver.resolveId());
         
         // Récupérer le pourcentage de commission du ticket (saisi par le propriétaire lors de l'assignation)
         // Chaque appareil/ticket a son propre pourcentage de commission, pas de commission fixe pour le réparateur
@@ -175,6 +182,15 @@ public class PaymentService {
         commissionRepository.save(commission);
     }
 
+    private PaymentChangedEvent paymentChanged(Payment payment) {
+        Ticket ticket = payment.getTicket();
+        return new PaymentChangedEvent(
+                payment.getId(),
+                ticket != null ? ticket.getId() : null,
+                ticket != null && ticket.getAssignedAgent() != null ? ticket.getAssignedAgent().getId() : null
+        );
+    }
+
     private User getUser(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Utilisateur introuvable"));
@@ -206,8 +222,8 @@ public class PaymentService {
         User client = payment.getUser();
         Ticket ticket = payment.getTicket();
         
-        // Extraire le type d'appareil du titre du ticket
-        String appareilType = extractAppareilType(ticket != null ? ticket.getTitle() : null);
+        // Type d'appareil classé à l'enregistrement du ticket
+        String appareilType = appareilLabel(ticket != null ? ticket.getAppareilType() : null);
         
         // Calculer le statut de paiement
         String statutPaiement = calculateStatutPaiement(payment);
@@ -239,32 +255,6 @@ public class PaymentService {
         );
     }
 
-    private String extractAppareilType(String title) {
-        if (title == null || title.isEmpty()) {
-            return "Non spécifié";
-        }
-        
-        String lowerTitle = title.toLowerCase();
-        if (lowerTitle.contains("téléphone") || lowerTitle.contains("telephone") || lowerTitle.contains("phone") || lowerTitle.contains("smartphone")) {
-            return "Téléphone";
-        } else if (lowerTitle.contains("ordinateur") || lowerTitle.contains("pc") || lowerTitle.contains("laptop")) {
-            return "Ordinateur";
-        } else if (lowerTitle.contains("tv") || lowerTitle.contains("télévision") || lowerTitle.contains("television")) {
-            return "TV";
-        } else if (lowerTitle.contains("tablette") || lowerTitle.contains("tablet")) {
-            return "Tablette";
-        } else if (lowerTitle.contains("écran") || lowerTitle.contains("ecran") || lowerTitle.contains("screen")) {
-            return "Écran";
-        } else if (lowerTitle.contains("imprimante") || lowerTitle.contains("printer")) {
-            return "Imprimante";
-        } else if (lowerTitle.contains("réfrigérateur") || lowerTitle.contains("refrigerateur") || lowerTitle.contains("frigo")) {
-            return "Réfrigérateur";
-        } else if (lowerTitle.contains("lave-linge") || lowerTitle.contains("machine à laver")) {
-            return "Lave-linge";
-        } else {
-            return "Autre";
-        }
-    }
 
     private String calculateStatutPaiement(Payment payment) {
         if (payment.getStatus() == PaymentStatus.VALIDE) {
@@ -279,5 +269,8 @@ public class PaymentService {
             return "NON_PAYE";
         }
     }
-}
 
+    private static String appareilLabel(AppareilType type) {
+        return type != null ? type.getLabel() : AppareilType.NON_SPECIFIE;
+    }
+}
@@ -0,0 +1,25 @@
+package com.centrecommercial.service;
+
+import com.centrecommercial.config.CacheReloader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rafraîchissement anticipé de la liste des paiements (clé 'all' du cache payments)
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentsCacheReloader implements CacheReloader {
+
+    private final PaymentService paymentService;
+
+    @Override
+    public String cacheName() {
+        return "payments";
+    }
+
+    @Override
+    public Object reload(Object key) {
+        return paymentService.loadAllWithDetails();
+    }
+}
@@ -0,0 +1,32 @@
+package com.centrecommercial.service;
+
+import com.centrecommercial.domain.user.RoleType;
+import com.centrecommercial.exception.BusinessException;
+import com.centrecommercial.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Résout le propriétaire qui reçoit la part propriétaire des commissions.
+ * Pour simplifier, c'est le premier utilisateur ayant le rôle PROPRIETAIRE ; dans un vrai système,
+ * il faudrait lier le ticket à un magasin qui a un propriétaire.
+ * L'ID est gardé dans le cache "proprietaire", vidé après chaque changement d'utilisateur ou de rôles (UserChangedEvent).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProprietaireResolver {
+
+    private final UserRepository userRepository;
+
+    @Cacheable(value = "proprietaire", key = "'id'", sync = true)
+    public Long resolveId() {
+        log.debug("Recherche du propriétaire (cache vide)");
+        return userRepository.findIdsByRole(RoleType.ROLE_PROPRIETAIRE, PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .orElseThrow(() -> new BusinessException("Aucun propriétaire trouvé dans le système"));
+    }
+}
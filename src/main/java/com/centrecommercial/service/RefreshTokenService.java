@@ -0,0 +1,206 @@
+package com.centrecommercial.service;
+
+import com.centrecommercial.domain.user.RefreshToken;
+import com.centrecommercial.domain.user.User;
+import com.centrecommercial.exception.BusinessException;
+import com.centrecommercial.repository.RefreshTokenRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Cycle de vie des refresh tokens.
+ * Le client reçoit un jeton aléatoire ; seule son empreinte SHA-256 (64 caractères hex, index unique) est stockée.
+ * Chaque utilisation consomme le jeton et en émet un nouveau (rotation) ; un jeton rejoué est refusé.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final String LEGACY_COLUMN = "token";
+    // Casse des noms de table selon la base (MySQL : minuscules, H2 : majuscules)
+    private static final List<String> TABLE_NAMES = List.of("refresh_tokens", "REFRESH_TOKENS");
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate purgeTransaction;
+    private final SecureRandom random = new SecureRandom();
+    private final Duration validity;
+    private final int maxPerUser;
+    private final int purgeBatchSize;
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.security.refresh-token.validity:P7D}") Duration validity,
+            @Value("${app.security.refresh-token.max-per-user:5}") int maxPerUser,
+            @Value("${app.security.refresh-token.purge-batch-size:1000}") int purgeBatchSize
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.purgeTransaction = new TransactionTemplate(transactionManager);
+        this.purgeTransaction.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        this.validity = validity;
+        this.maxPerUser = Math.max(1, maxPerUser);
+        this.purgeBatchSize = Math.max(1, purgeBatchSize);
+    }
+
+    /**
+     * Émet un refresh token pour l'utilisateur et retourne sa valeur en clair (jamais persistée).
+     * Au-delà de max-per-user sessions actives, les plus anciennes sont supprimées.
+     */
+    @Transactional
+    public String issue(User user) {
+        Instant now = Instant.now();
+        List<Long> actifs = refreshTokenRepository.findActiveIds(user.getId(), now);
+        int excedent = actifs.size() - maxPerUser + 1;
+        if (excedent > 0) {
+            refreshTokenRepository.deleteByIds(actifs.subList(0, excedent));
+        }
+
+        String raw = generate();
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setUser(user);
+        refreshToken.setTokenHash(hash(raw));
+        refreshToken.setExpiresAt(now.plus(validity));
+        refreshTokenRepository.save(refreshToken);
+        return raw;
+    }
+
+    /**
+     * Consomme le jeton présenté et retourne son utilisateur.
+     * La suppression conditionnelle garantit qu'entre deux appels concurrents avec le même jeton, un seul réussit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public User consume(String raw) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(raw))
+                .filter(token -> !token.isRevoked() && token.getExpiresAt().isAfter(Instant.now()))
+                .orElseThrow(() -> new BusinessException("Refresh token invalide ou expiré."));
+        if (refreshTokenRepository.consume(refreshToken.getId()) != 1) {
+            throw new BusinessException("Refresh token invalide ou expiré.");
+        }
+        return refreshToken.getUser();
+    }
+
+    @Transactional
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Purge les jetons expirés ou révoqués par lots, chaque lot dans sa propre transaction
+     * pour ne pas verrouiller la table sur une longue durée.
+     *
+     * @return le nombre de jetons supprimés
+     */
+    @Scheduled(cron = "${app.security.refresh-token.purge-cron:0 15 * * * *}")
+    public int purgeExpired() {
+        Instant now = Instant.now();
+        int total = 0;
+        int supprimes;
+        do {
+            supprimes = purgeTransaction.execute(status -> {
+                List<Long> ids = refreshTokenRepository.findPurgeableIds(now, PageRequest.of(0, purgeBatchSize));
+                return ids.isEmpty() ? 0 : refreshTokenRepository.deleteByIds(ids);
+            });
+            total += supprimes;
+        } while (supprimes == purgeBatchSize);
+        if (total > 0) {
+            log.info("{} refresh tokens expirés purgés", total);
+        }
+        return total;
+    }
+
+    /**
+     * Reprise des refresh tokens stockés en clair, au démarrage.
+     * Le schéma étant mis à jour par Hibernate, une base existante garde l'ancienne colonne token (NOT NULL) à côté
+     * de token_hash : chaque insertion échouerait. Les jetons existants sont hachés (les sessions restent valides),
+     * la colonne est supprimée puis l'index unique sur token_hash créé s'il manque. Sans effet une fois la base à jour.
+     */
+    public void migrateLegacyTokens() {
+        Boolean legacy = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                hasColumn(connection.getMetaData(), connection.getCatalog(), LEGACY_COLUMN));
+        if (Boolean.TRUE.equals(legacy)) {
+            List<Map.Entry<Long, String>> tokens = jdbcTemplate.query(
+                    "SELECT id, token FROM refresh_tokens WHERE token IS NOT NULL",
+                    (rs, rowNum) -> Map.entry(rs.getLong(1), hash(rs.getString(2))));
+            jdbcTemplate.batchUpdate("UPDATE refresh_tokens SET token_hash = ? WHERE id = ?", tokens, purgeBatchSize,
+                    (ps, token) -> {
+                        ps.setString(1, token.getValue());
+                        ps.setLong(2, token.getKey());
+                    });
+            jdbcTemplate.execute("ALTER TABLE refresh_tokens DROP COLUMN token");
+            log.info("Refresh tokens en clair migrés vers token_hash: {}", tokens.size());
+        }
+        Boolean indexed = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                hasUniqueIndex(connection.getMetaData(), connection.getCatalog(), "token_hash"));
+        if (!Boolean.TRUE.equals(indexed)) {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX uk_refresh_tokens_hash ON refresh_tokens (token_hash)");
+            log.info("Index unique uk_refresh_tokens_hash créé");
+        }
+    }
+
+    private static boolean hasColumn(DatabaseMetaData metaData, String catalog, String column) throws SQLException {
+        for (String table : TABLE_NAMES) {
+            try (ResultSet rs = metaData.getColumns(catalog, null, table, null)) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasUniqueIndex(DatabaseMetaData metaData, String catalog, String column) throws SQLException {
+        for (String table : TABLE_NAMES) {
+            try (ResultSet rs = metaData.getIndexInfo(catalog, null, table, true, false)) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private String generate() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static String hash(String raw) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
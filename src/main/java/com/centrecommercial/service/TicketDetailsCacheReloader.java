@@ -0,0 +1,25 @@
+package com.centrecommercial.service;
+
+import com.centrecommercial.config.CacheReloader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rafraîchissement anticipé du détail d'un ticket (clé = ID du ticket)
+ */
+@Component
+@RequiredArgsConstructor
+public class TicketDetailsCacheReloader implements CacheReloader {
+
+    private final TicketService ticketService;
+
+    @Override
+    public String cacheName() {
+        return "ticketDetails";
+    }
+
+    @Override
+    public Object reload(Object key) {
+        return ticketService.loadById((Long) key);
+    }
+}
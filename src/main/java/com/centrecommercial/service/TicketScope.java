@@ -0,0 +1,28 @@
+package com.centrecommercial.service;
+
+import com.centrecommercial.domain.user.RoleType;
+import com.centrecommercial.security.UserPrincipal;
+
+/**
+ * Périmètre des tickets visibles par un utilisateur, résolu depuis ses rôles :
+ * administrateur / propriétaire : tous les tickets ; réparateur : ses tickets assignés
+ * (idx_tickets_assigned_agent) ; client : ses propres demandes (idx_tickets_requester).
+ */
+public record TicketScope(Long agentId, Long requesterId) {
+
+    private static final TicketScope TOUS = new TicketScope(null, null);
+
+    public static TicketScope of(UserPrincipal principal) {
+        if (principal.hasRole(RoleType.ROLE_ADMIN) || principal.hasRole(RoleType.ROLE_PROPRIETAIRE)) {
+            return TOUS;
+        }
+        if (principal.hasRole(RoleType.ROLE_REPARATEUR)) {
+            return new TicketScope(principal.id(), null);
+        }
+        return new TicketScope(null, principal.id());
+    }
+
+    public boolean isAll() {
+        return agentId == null && requesterId == null;
+    }
+}
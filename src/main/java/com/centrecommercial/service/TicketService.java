@@ -1,29 +1,47 @@
 package com.centrecommercial.service;
 
 import com.centrecommercial.domain.ticket.AppareilReparationStatus;
+import com.centrecommercial.domain.ticket.AppareilType;
 import com.centrecommercial.domain.ticket.Ticket;
 import com.centrecommercial.domain.ticket.TicketHistory;
 import com.centrecommercial.domain.ticket.TicketPriority;
 import com.centrecommercial.domain.ticket.TicketStatus;
 import com.centrecommercial.domain.user.User;
+import com.centrecommercial.dto.common.CursorPage;
+import com.centrecommercial.dto.common.KeysetCursor;
+import com.centrecommercial.dto.ticket.TicketAppareilView;
 import com.centrecommercial.dto.ticket.TicketAssignRequest;
 import com.centrecommercial.dto.ticket.TicketCreateRequest;
 import com.centrecommercial.dto.ticket.TicketHistoryResponse;
+import com.centrecommercial.dto.ticket.TicketSearchCriteria;
 import com.centrecommercial.dto.ticket.TicketResponse;
 import com.centrecommercial.dto.ticket.TicketStatusUpdateRequest;
+import com.centrecommercial.dto.ticket.TicketSummaryResponse;
+import com.centrecommercial.event.TicketTextChangedEvent;
 import com.centrecommercial.exception.BusinessException;
 import com.centrecommercial.exception.NotFoundException;
 import com.centrecommercial.repository.TicketHistoryRepository;
 import com.centrecommercial.repository.TicketRepository;
 import com.centrecommercial.repository.UserRepository;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,14 +54,23 @@ public class TicketService {
     private final TicketRepository ticketRepository;
     private final TicketHistoryRepository ticketHistoryRepository;
     private final UserRepository userRepository;
+    private final TicketTextIndex ticketTextIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int RECLASSIFY_BATCH_SIZE = 500;
+
+    // Propriétés de tri acceptées depuis la requête (colonnes du résumé de ticket)
+    private static final Set<String> SORT_PROPERTIES = Set.of(
+            "id", "code", "title", "status", "priority", "appareilStatus", "appareilType",
+            "createdAt", "updatedAt", "resolvedAt");
 
     @Transactional(readOnly = true)
-    public Page<TicketResponse> findAll(Pageable pageable) {
+    public Page<TicketSummaryResponse> findAll(Pageable pageable) {
         log.debug("Recherche de tous les tickets - Page: {}, Size: {}", pageable.getPageNumber(), pageable.getPageSize());
         try {
-            Page<Ticket> tickets = ticketRepository.findAll(pageable);
-            log.debug("Tickets récupérés: {} sur {}", tickets.getContent().size(), tickets.getTotalElements());
-            Page<TicketResponse> result = tickets.map(this::toResponse);
+            Page<TicketSummaryResponse> result = ticketRepository.findAllSummaries(pageable);
+            log.debug("Tickets récupérés: {} sur {}", result.getContent().size(), result.getTotalElements());
             return result;
         } catch (Exception e) {
             log.error("Erreur lors de la récupération des tickets", e);
@@ -51,15 +78,129 @@ public class TicketService {
         }
     }
 
+    /**
+     * Liste par clé (seek) sur (updatedAt, id) ou (createdAt, id) : le coût d'une page ne dépend pas
+     * de sa profondeur. Le total n'est calculé que sur demande.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TicketSummaryResponse> findPage(TicketScope scope, String orderBy, String cursor, int size, boolean withTotal) {
+        boolean parCreation = "createdAt".equals(orderBy);
+        if (!parCreation && orderBy != null && !"updatedAt".equals(orderBy)) {
+            throw new BusinessException("Tri non supporté: " + orderBy + " (updatedAt ou createdAt)");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        Instant cursorDate = position != null ? position.instant() : null;
+        Long cursorId = position != null ? position.id() : null;
+        PageRequest limite = PageRequest.of(0, pageSize + 1);
+
+        List<TicketSummaryResponse> rows = parCreation
+                ? ticketRepository.findPageByCreatedAt(scope.agentId(), scope.requesterId(), cursorDate, cursorId, limite)
+                : ticketRepository.findPageByUpdatedAt(scope.agentId(), scope.requesterId(), cursorDate, cursorId, limite);
+        CursorPage<TicketSummaryResponse> page = CursorPage.of(rows, pageSize,
+                t -> new KeysetCursor(parCreation ? t.createdAt() : t.updatedAt(), t.id()));
+        if (!withTotal) {
+            return page;
+        }
+        return page.withTotal(count(scope));
+    }
+
+    /**
+     * Liste paginée restreinte au périmètre de l'utilisateur : chaque périmètre a sa requête dédiée
+     * (et son comptage) sur l'index correspondant, au lieu d'une page sur toute la table.
+     */
+    @Transactional(readOnly = true)
+    public Page<TicketSummaryResponse> findVisible(TicketScope scope, Pageable pageable) {
+        checkSort(pageable);
+        if (scope.agentId() != null) {
+            return findByAssignedAgent(scope.agentId(), pageable);
+        }
+        if (scope.requesterId() != null) {
+            return findByRequester(scope.requesterId(), pageable);
+        }
+        return findAll(pageable);
+    }
+
+    /**
+     * Recherche multi-critères côté serveur, toujours restreinte au périmètre de l'utilisateur
+     */
+    @Transactional(readOnly = true)
+    public Page<TicketSummaryResponse> search(TicketScope scope, TicketSearchCriteria criteria, Pageable pageable) {
+        checkSort(pageable);
+        return ticketRepository.search(criteria.restrictTo(scope.agentId(), scope.requesterId()), pageable);
+    }
+
+    /**
+     * Recherche plein texte sur le titre et la description, classée par pertinence.
+     * Le classement vient de l'index en mémoire ; seule la page demandée est lue en base.
+     */
+    @Transactional(readOnly = true)
+    public Page<TicketSummaryResponse> searchText(TicketScope scope, String query, Pageable pageable) {
+        List<Long> ids;
+        if (scope.isAll()) {
+            ids = ticketTextIndex.search(query);
+        } else {
+            // Périmètre appliqué dans l'index, avant la limite de résultats (IDs lus sur l'index agent ou demandeur)
+            Set<Long> visibles = new HashSet<>(ticketRepository.findIdsInScope(scope.agentId(), scope.requesterId()));
+            ids = visibles.isEmpty() ? List.of() : ticketTextIndex.search(query, visibles::contains);
+        }
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + Math.min(pageable.getPageSize(), MAX_PAGE_SIZE), ids.size());
+        List<Long> pageIds = ids.subList(from, to);
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.size());
+        }
+        Map<Long, TicketSummaryResponse> byId = ticketRepository.findSummariesByIds(pageIds).stream()
+                .collect(Collectors.toMap(TicketSummaryResponse::id, Function.identity()));
+        List<TicketSummaryResponse> content = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, ids.size());
+    }
+
+    private static void checkSort(Pageable pageable) {
+        pageable.getSort().forEach(order -> {
+            if (!SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new BusinessException("Tri non supporté: " + order.getProperty() + " " + SORT_PROPERTIES);
+            }
+        });
+    }
+
+    private long count(TicketScope scope) {
+        if (scope.agentId() != null) {
+            return ticketRepository.countByAssignedAgentId(scope.agentId());
+        }
+        if (scope.requesterId() != null) {
+            return ticketRepository.countByRequesterId(scope.requesterId());
+        }
+        return ticketRepository.count();
+    }
+
     @Transactional(readOnly = true)
-    public Page<TicketResponse> findByAssignedAgent(Long agentId, Pageable pageable) {
-        Page<Ticket> tickets = ticketRepository.findByAssignedAgentId(agentId, pageable);
-        return tickets.map(this::toResponse);
+    public Page<TicketSummaryResponse> findByAssignedAgent(Long agentId, Pageable pageable) {
+        return ticketRepository.findSummariesByAssignedAgentId(agentId, pageable);
     }
 
-    @Cacheable(value = "ticketDetails", key = "#id")
+    @Transactional(readOnly = true)
+    public Page<TicketSummaryResponse> findByRequester(Long requesterId, Pageable pageable) {
+        return ticketRepository.findSummariesByRequesterId(requesterId, pageable);
+    }
+
+    /**
+     * sync = true : les appels concurrents sur un même ticket absent du cache attendent un seul chargement
+     */
+    @Cacheable(value = "ticketDetails", key = "#id", sync = true)
     @Transactional(readOnly = true)
     public TicketResponse findById(Long id) {
+        return loadById(id);
+    }
+
+    /**
+     * Chargement sans passer par le cache (utilisé aussi par le rafraîchissement anticipé)
+     */
+    @Transactional(readOnly = true)
+    public TicketResponse loadById(Long id) {
         log.debug("Recherche ticket ID: {}", id);
         Ticket ticket = getById(id);
         log.debug("Ticket trouvé: ID={}, Code={}, Commission={}", 
@@ -82,6 +223,40 @@ public class TicketService {
                 .toList();
     }
 
+    /**
+     * Reprise de la classification des tickets existants, au démarrage.
+     * Le schéma étant mis à jour par Hibernate, la colonne appareil_type ajoutée sur une base existante
+     * reçoit une valeur par défaut au lieu du type déduit du titre. Le type ne dépendant que du titre,
+     * les tickets sont relus par lots et seuls ceux dont le type diffère de classify(titre) sont corrigés :
+     * idempotent, sans écriture une fois la base à jour.
+     *
+     * @return le nombre de tickets reclassés
+     */
+    @Transactional
+    public int reclassifyAppareilTypes() {
+        int corriges = 0;
+        Long afterId = 0L;
+        List<TicketAppareilView> batch;
+        do {
+            batch = ticketRepository.findAppareilTypesAfter(afterId, PageRequest.of(0, RECLASSIFY_BATCH_SIZE));
+            Map<AppareilType, List<Long>> aCorriger = new EnumMap<>(AppareilType.class);
+            for (TicketAppareilView ticket : batch) {
+                AppareilType attendu = AppareilType.classify(ticket.title());
+                if (attendu != ticket.appareilType()) {
+                    aCorriger.computeIfAbsent(attendu, type -> new ArrayList<>()).add(ticket.id());
+                }
+                afterId = ticket.id();
+            }
+            for (Map.Entry<AppareilType, List<Long>> entry : aCorriger.entrySet()) {
+                corriges += ticketRepository.updateAppareilType(entry.getValue(), entry.getKey());
+            }
+        } while (batch.size() == RECLASSIFY_BATCH_SIZE);
+        if (corriges > 0) {
+            log.info("Type d'appareil reclassé pour {} tickets", corriges);
+        }
+        return corriges;
+    }
+
     @CacheEvict(value = {"tickets", "ticketDetails"}, allEntries = true)
     @Transactional
     public TicketResponse create(Long requesterId, TicketCreateRequest request) {
@@ -90,6 +265,7 @@ public class TicketService {
         Ticket ticket = new Ticket();
         ticket.setCode(UUID.randomUUID().toString());
         ticket.setTitle(request.title());
+        ticket.setAppareilType(AppareilType.classify(request.title()));
         ticket.setDescription(request.description());
         ticket.setPriority(request.priority() != null ? request.priority() : TicketPriority.MOYENNE);
         ticket.setRequester(requester);
@@ -99,6 +275,7 @@ public class TicketService {
         
         ticketRepository.save(ticket);
         saveHistory(ticket, requester, "CREATION", null, ticket.getStatus().name(), null);
+        eventPublisher.publishEvent(TicketTextChangedEvent.indexed(ticket.getId(), ticket.getTitle(), ticket.getDescription()));
         log.info("Ticket créé avec succès: ID={}, Code={}", ticket.getId(), ticket.getCode());
         return toResponse(ticket);
     }
@@ -193,6 +370,7 @@ public class TicketService {
         log.debug("Mise à jour ticket ID: {}", ticketId);
         Ticket ticket = getById(ticketId);
         ticket.setTitle(request.title());
+        ticket.setAppareilType(AppareilType.classify(request.title()));
         ticket.setDescription(request.description());
         if (request.priority() != null) {
             ticket.setPriority(request.priority());
@@ -200,6 +378,7 @@ public class TicketService {
         ticketRepository.save(ticket);
         User actor = getUser(actorId);
         saveHistory(ticket, actor, "UPDATE", ticket.getStatus().name(), ticket.getStatus().name(), "Ticket modifié");
+        eventPublisher.publishEvent(TicketTextChangedEvent.indexed(ticket.getId(), ticket.getTitle(), ticket.getDescription()));
         log.info("Ticket mis à jour: ID={}", ticketId);
         return toResponse(ticket);
     }
@@ -208,6 +387,7 @@ public class TicketService {
     public void delete(Long ticketId, Long actorId) {
         Ticket ticket = getById(ticketId);
         ticketRepository.delete(ticket);
+        eventPublisher.publishEvent(TicketTextChangedEvent.deleted(ticketId));
     }
 
     private void saveHistory(Ticket ticket, User actor, String action, String from, String to, String note) {
@@ -0,0 +1,213 @@
+package com.centrecommercial.service;
+
+import com.centrecommercial.dto.ticket.TicketTextView;
+import com.centrecommercial.event.TicketTextChangedEvent;
+import com.centrecommercial.repository.TicketRepository;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Index inversé en mémoire sur le titre et la description des tickets.
+ * Les mots sont mis en minuscules et sans accents ("Écran cassé" -> "ecran", "casse"),
+ * chaque mot de la requête peut aussi correspondre en préfixe ("iph" -> "iphone").
+ * Reconstruit au démarrage, puis tenu à jour après chaque création / modification / suppression validée.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketTextIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final double PREFIX_FACTOR = 0.5;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_RESULTS = 1000;
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "au", "aux", "d", "de", "des", "du", "en", "et", "l", "la", "le", "les",
+            "ne", "pas", "par", "pour", "sur", "un", "une");
+
+    private final TicketRepository ticketRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // mot -> (ticket -> poids) ; trié pour retrouver les mots d'un préfixe par sous-intervalle
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByTicket = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long debut = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByTicket.clear();
+            Long afterId = 0L;
+            List<TicketTextView> batch;
+            do {
+                batch = ticketRepository.findTextAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (TicketTextView ticket : batch) {
+                    indexLocked(ticket.id(), ticket.title(), ticket.description());
+                    afterId = ticket.id();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Index de recherche des tickets reconstruit: {} tickets, {} mots en {} ms",
+                 termsByTicket.size(), postings.size(), System.currentTimeMillis() - debut);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketTextChanged(TicketTextChangedEvent event) {
+        if (event.deleted()) {
+            remove(event.ticketId());
+        } else {
+            index(event.ticketId(), event.title(), event.description());
+        }
+    }
+
+    public void index(Long ticketId, String title, String description) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(ticketId);
+            indexLocked(ticketId, title, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long ticketId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(ticketId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs des tickets contenant tous les mots de la requête, du plus pertinent au moins pertinent
+     * (au plus MAX_RESULTS). Un mot du titre pèse plus qu'un mot de la description, un mot rare plus qu'un mot courant.
+     */
+    public List<Long> search(String query) {
+        return search(query, ticketId -> true);
+    }
+
+    /**
+     * Même recherche restreinte aux tickets acceptés par le filtre (périmètre de l'utilisateur).
+     * Le filtre s'applique avant la limite MAX_RESULTS : les tickets visibles ne sont jamais évincés par les autres.
+     */
+    public List<Long> search(String query, Predicate<Long> visible) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String token : tokens) {
+                Map<Long, Double> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                    scores.keySet().removeIf(visible.negate());
+                } else {
+                    Map<Long, Double> tokenScoresFinal = tokenScores;
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScoresFinal.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                    .limit(MAX_RESULTS)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return termsByTicket.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Découpe un texte en mots normalisés : sans accents, en minuscules, sans mots vides
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(folded.split("[^a-z0-9]+"))
+                .filter(token -> !token.isEmpty() && !STOP_WORDS.contains(token))
+                .distinct()
+                .toList();
+    }
+
+    private Map<Long, Double> scoreToken(String token) {
+        Map<Long, Double> scores = new HashMap<>();
+        int totalTickets = Math.max(1, termsByTicket.size());
+        Map<String, Map<Long, Integer>> candidates = token.length() >= MIN_PREFIX_LENGTH
+                ? postings.subMap(token, true, token + Character.MAX_VALUE, true)
+                : postings.subMap(token, true, token, true);
+        for (Map.Entry<String, Map<Long, Integer>> entry : candidates.entrySet()) {
+            double factor = entry.getKey().equals(token) ? 1.0 : PREFIX_FACTOR;
+            double idf = Math.log(1.0 + (double) totalTickets / entry.getValue().size());
+            entry.getValue().forEach((ticketId, weight) ->
+                    scores.merge(ticketId, factor * weight * idf, Math::max));
+        }
+        return scores;
+    }
+
+    private void indexLocked(Long ticketId, String title, String description) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(title).forEach(token -> weights.merge(token, TITLE_WEIGHT, Integer::sum));
+        tokenize(description).forEach(token -> weights.merge(token, 1, Integer::sum));
+        weights.forEach((token, weight) -> postings.computeIfAbsent(token, t -> new HashMap<>()).put(ticketId, weight));
+        termsByTicket.put(ticketId, weights.keySet());
+    }
+
+    private void removeLocked(Long ticketId) {
+        Set<String> terms = termsByTicket.remove(ticketId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> tickets = postings.get(term);
+            if (tickets != null) {
+                tickets.remove(ticketId);
+                if (tickets.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.centrecommercial.service;
+
+import com.centrecommercial.domain.user.Role;
+import com.centrecommercial.domain.user.RoleType;
+import com.centrecommercial.domain.user.User;
+import com.centrecommercial.dto.user.UserSuggestion;
+import com.centrecommercial.event.UserChangedEvent;
+import com.centrecommercial.repository.UserRepository;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Annuaire en mémoire pour l'autocomplétion des utilisateurs (assignation, recherche de clients au comptoir).
+ * Chaque utilisateur est indexé par préfixe sur ses prénom, nom, email et téléphone (chiffres seuls),
+ * sans accents ni casse. Reconstruit au démarrage, puis tenu à jour après chaque UserChangedEvent validé.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserDirectoryIndex {
+
+    public static final int MAX_LIMIT = 50;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // clé normalisée -> utilisateurs ; trié pour retrouver toutes les clés d'un préfixe par sous-intervalle
+    private final NavigableMap<String, Set<Long>> keys = new TreeMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private record Entry(UserSuggestion suggestion, Set<String> keys, boolean enabled) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long debut = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            keys.clear();
+            entries.clear();
+            Long afterId = 0L;
+            List<User> batch;
+            do {
+                batch = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (User user : batch) {
+                    putLocked(user);
+                    afterId = user.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Annuaire des utilisateurs reconstruit: {} utilisateurs, {} clés en {} ms",
+                 entries.size(), keys.size(), System.currentTimeMillis() - debut);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        userRepository.findById(event.userId())
+                .ifPresentOrElse(this::put, () -> remove(event.userId()));
+    }
+
+    public void put(User user) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(user.getId());
+            putLocked(user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long userId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Au plus limit utilisateurs actifs (optionnellement d'un rôle) dont chaque mot de la requête
+     * commence une de leurs clés. Les correspondances exactes passent d'abord, puis l'ordre alphabétique.
+     */
+    public List<UserSuggestion> suggest(String query, RoleType role, int limit) {
+        List<String> tokens = queryTokens(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> matches = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Set<Long> ids = new HashSet<>();
+                keys.subMap(token, true, token + Character.MAX_VALUE, true).values().forEach(ids::addAll);
+                if (ids.isEmpty()) {
+                    return List.of();
+                }
+                matches.add(ids);
+            }
+            // On parcourt le plus petit ensemble et on vérifie les autres
+            matches.sort(Comparator.comparingInt(Set::size));
+            Comparator<Candidate> ordre = Comparator.comparingInt(Candidate::exactMatches).reversed()
+                    .thenComparing(c -> c.suggestion().lastName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                    .thenComparing(c -> c.suggestion().firstName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                    .thenComparing(c -> c.suggestion().id());
+            // Tas borné à max éléments : le pire candidat retenu est en tête
+            PriorityQueue<Candidate> meilleurs = new PriorityQueue<>(ordre.reversed());
+            for (Long id : matches.get(0)) {
+                Entry entry = entries.get(id);
+                if (entry == null || !entry.enabled()
+                        || (role != null && !entry.suggestion().roles().contains(role))
+                        || !matches.stream().skip(1).allMatch(ids -> ids.contains(id))) {
+                    continue;
+                }
+                int exact = (int) tokens.stream().filter(entry.keys()::contains).count();
+                meilleurs.offer(new Candidate(entry.suggestion(), exact));
+                if (meilleurs.size() > max) {
+                    meilleurs.poll();
+                }
+            }
+            return meilleurs.stream().sorted(ordre).map(Candidate::suggestion).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Candidate(UserSuggestion suggestion, int exactMatches) {}
+
+    private void putLocked(User user) {
+        Set<String> userKeys = new LinkedHashSet<>();
+        userKeys.addAll(words(user.getFirstName()));
+        userKeys.addAll(words(user.getLastName()));
+        if (user.getEmail() != null) {
+            String email = fold(user.getEmail());
+            userKeys.add(email);
+            userKeys.addAll(words(email.substring(0, Math.max(0, email.indexOf('@')))));
+        }
+        String phone = digits(user.getPhone());
+        if (!phone.isEmpty()) {
+            userKeys.add(phone);
+        }
+        Set<RoleType> roles = user.getRoles().stream().map(Role::getName).collect(Collectors.toUnmodifiableSet());
+        UserSuggestion suggestion = new UserSuggestion(user.getId(), user.getFirstName(), user.getLastName(),
+                user.getEmail(), user.getPhone(), roles);
+        entries.put(user.getId(), new Entry(suggestion, userKeys, user.isEnabled()));
+        userKeys.forEach(key -> keys.computeIfAbsent(key, k -> new HashSet<>()).add(user.getId()));
+    }
+
+    private void removeLocked(Long userId) {
+        Entry entry = entries.remove(userId);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys()) {
+            Set<Long> ids = keys.get(key);
+            if (ids != null) {
+                ids.remove(userId);
+                if (ids.isEmpty()) {
+                    keys.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Une requête composée uniquement de chiffres et séparateurs est un numéro de téléphone :
+     * on la garde d'un seul tenant ("06 12 34" -> "061234")
+     */
+    private static List<String> queryTokens(String query) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        if (query.matches("[\\d\\s+().-]+")) {
+            String phone = digits(query);
+            return phone.isEmpty() ? List.of() : List.of(phone);
+        }
+        String folded = fold(query.trim());
+        if (folded.contains("@")) {
+            return List.of(folded);
+        }
+        return words(folded);
+    }
+
+    private static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(fold(text).split("[^a-z0-9]+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static String fold(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static String digits(String text) {
+        return text == null ? "" : text.replaceAll("\\D", "");
+    }
+}
@@ -7,7 +7,9 @@ import com.centrecommercial.dto.user.PasswordUpdateRequest;
 import com.centrecommercial.dto.user.ProfileUpdateRequest;
 import com.centrecommercial.dto.user.UserCreateRequest;
 import com.centrecommercial.dto.user.UserResponse;
+import com.centrecommercial.dto.user.UserSuggestion;
 import com.centrecommercial.dto.user.UserUpdateRequest;
+import com.centrecommercial.event.UserChangedEvent;
 import com.centrecommercial.exception.BusinessException;
 import com.centrecommercial.exception.NotFoundException;
 import com.centrecommercial.repository.RoleRepository;
@@ -16,6 +18,11 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,18 +31,43 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class UserService {
 
+    // Propriétés de tri acceptées depuis la requête pour les listes paginées
+    private static final Set<String> SORT_PROPERTIES = Set.of("id", "firstName", "lastName", "email", "createdAt");
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserDirectoryIndex userDirectoryIndex;
+    private final RefreshTokenService refreshTokenService;
 
     public List<UserResponse> findAll() {
         return userRepository.findAll().stream().map(this::toResponse).toList();
     }
 
-    public List<UserResponse> findByRole(String roleName) {
-        RoleType roleType = RoleType.valueOf(roleName);
-        return userRepository.findAll().stream()
-                .filter(user -> user.hasRole(roleType))
+    public Page<UserResponse> findByRole(RoleType roleType, Pageable pageable) {
+        pageable.getSort().forEach(order -> {
+            if (!SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new BusinessException("Tri non supporté: " + order.getProperty() + " " + SORT_PROPERTIES);
+            }
+        });
+        return userRepository.findByRole(roleType, pageable).map(this::toResponse);
+    }
+
+    /**
+     * Autocomplétion sur nom, email et téléphone, servie par l'annuaire en mémoire
+     */
+    public List<UserSuggestion> suggest(String query, RoleType role, int limit) {
+        return userDirectoryIndex.suggest(query, role, limit);
+    }
+
+    /**
+     * Liste des réparateurs pour les listes de sélection (assignation), gardée en cache quelques instants
+     * et vidée après chaque changement d'utilisateur
+     */
+    @Cacheable(value = "reparateurs", key = "'all'", sync = true)
+    public List<UserResponse> findReparateurs() {
+        return userRepository.findAllByRole(RoleType.ROLE_REPARATEUR, Sort.by("lastName", "firstName", "id")).stream()
                 .map(this::toResponse)
                 .toList();
     }
@@ -62,7 +94,9 @@ public class UserService {
         user.setRoles(resolveRoles(request.roles()));
         user.setSpecialite(request.specialite());
         user.setReparateurPercentage(request.reparateurPercentage());
-        return toResponse(userRepository.save(user));
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId()));
+        return toResponse(saved);
     }
 
     @Transactional
@@ -70,22 +104,33 @@ public class UserService {
         User user = getById(id);
         user.setFirstName(request.firstName());
         user.setLastName(request.lastName());
-        user.setEmail(request.email());
+        if (!request.email().equals(user.getEmail())) {
+            user.setEmail(request.email());
+            revokeTokens(user); // L'email est le sujet du jeton
+        }
         user.setPhone(request.phone());
         if (request.roles() != null && !request.roles().isEmpty()) {
-            user.setRoles(resolveRoles(request.roles()));
+            Set<Role> roles = resolveRoles(request.roles());
+            if (!roles.equals(user.getRoles())) {
+                user.setRoles(roles);
+                revokeTokens(user); // Les rôles sont portés par le jeton
+            }
         }
-        if (request.enabled() != null) {
+        if (request.enabled() != null && request.enabled() != user.isEnabled()) {
             user.setEnabled(request.enabled());
+            revokeTokens(user);
         }
         user.setSpecialite(request.specialite());
         user.setReparateurPercentage(request.reparateurPercentage());
-        return toResponse(userRepository.save(user));
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId()));
+        return toResponse(saved);
     }
 
     @Transactional
     public void delete(Long id) {
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
     }
 
     @Transactional
@@ -95,7 +140,10 @@ public class UserService {
             throw new BusinessException("Mot de passe actuel incorrect.");
         }
         user.setPasswordHash(passwordEncoder.encode(request.newPassword()));
-        return toResponse(userRepository.save(user));
+        revokeTokens(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId()));
+        return toResponse(saved);
     }
 
     @Transactional
@@ -104,7 +152,9 @@ public class UserService {
         user.setFirstName(request.firstName());
         user.setLastName(request.lastName());
         user.setPhone(request.phone());
-        return toResponse(userRepository.save(user));
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId()));
+        return toResponse(saved);
     }
 
     @Transactional
@@ -113,7 +163,9 @@ public class UserService {
         user.setFirstName(request.firstName());
         user.setLastName(request.lastName());
         user.setPhone(request.phone());
-        return toResponse(userRepository.save(user));
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId()));
+        return toResponse(saved);
     }
 
     @Transactional
@@ -123,7 +175,10 @@ public class UserService {
             throw new BusinessException("Mot de passe actuel incorrect.");
         }
         user.setPasswordHash(passwordEncoder.encode(request.newPassword()));
-        return toResponse(userRepository.save(user));
+        revokeTokens(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId()));
+        return toResponse(saved);
     }
 
     private Set<Role> resolveRoles(Set<RoleType> roleTypes) {
@@ -143,6 +198,15 @@ public class UserService {
                 .orElseThrow(() -> new NotFoundException("Utilisateur introuvable"));
     }
 
+    /**
+     * Invalide les jetons d'accès émis (version) et supprime les refresh tokens :
+     * un refresh token volé ne peut plus obtenir de nouveau jeton après le changement
+     */
+    private void revokeTokens(User user) {
+        user.revokeTokens();
+        refreshTokenService.revokeAll(user.getId());
+    }
+
     private UserResponse toResponse(User user) {
         return new UserResponse(
                 user.getId(),
@@ -0,0 +1,23 @@
+-- Migration V10 : Type d'appareil stocké sur le ticket
+-- Calculé par AppareilType.classify à la création / modification du ticket ; les listes de paiements
+-- et de commissions lisent la colonne au lieu de re-analyser le titre à chaque ligne.
+
+ALTER TABLE tickets
+ADD COLUMN appareil_type VARCHAR(30) NOT NULL DEFAULT 'AUTRE';
+
+-- Reprise des tickets existants : mêmes mots-clés que AppareilType, en mots entiers,
+-- dans l'ordre de priorité de l'énumération
+UPDATE tickets
+SET appareil_type = CASE
+    WHEN LOWER(title) REGEXP '(^|[^[:alnum:]])(t[eé]l[eé]phone|phone|smartphone|iphone|mobile|gsm)s?([^[:alnum:]]|$)' THEN 'TELEPHONE'
+    WHEN LOWER(title) REGEXP '(^|[^[:alnum:]])(ordinateur|ordi|pc|laptop|macbook)s?([^[:alnum:]]|$)' THEN 'ORDINATEUR'
+    WHEN LOWER(title) REGEXP '(^|[^[:alnum:]])(tv|t[eé]l[eé]|t[eé]l[eé]vision|t[eé]l[eé]viseur)s?([^[:alnum:]]|$)' THEN 'TV'
+    WHEN LOWER(title) REGEXP '(^|[^[:alnum:]])(tablette|tablet|ipad)s?([^[:alnum:]]|$)' THEN 'TABLETTE'
+    WHEN LOWER(title) REGEXP '(^|[^[:alnum:]])([eé]cran|screen|moniteur)s?([^[:alnum:]]|$)' THEN 'ECRAN'
+    WHEN LOWER(title) REGEXP '(^|[^[:alnum:]])(imprimante|printer)s?([^[:alnum:]]|$)' THEN 'IMPRIMANTE'
+    WHEN LOWER(title) REGEXP '(^|[^[:alnum:]])(r[eé]frig[eé]rateur|frigo|frigidaire)s?([^[:alnum:]]|$)' THEN 'REFRIGERATEUR'
+    WHEN LOWER(title) REGEXP '(^|[^[:alnum:]])(lave[^[:alnum:]]+linge|machine[^[:alnum:]]+[aà][^[:alnum:]]+laver)s?([^[:alnum:]]|$)' THEN 'LAVE_LINGE'
+    ELSE 'AUTRE'
+END;
+
+CREATE INDEX idx_tickets_appareil_type ON tickets(appareil_type, created_at);
@@ -0,0 +1,5 @@
+-- Migration V11 : Recherche des utilisateurs par rôle
+-- La clé primaire (user_id, role_id) ne sert que les recherches par utilisateur ;
+-- cet index sert la recherche inverse (propriétaire, liste des réparateurs...).
+
+CREATE INDEX idx_user_roles_role ON user_roles(role_id, user_id);
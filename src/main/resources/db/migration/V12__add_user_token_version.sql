@@ -0,0 +1,6 @@
+-- Migration V12 : Version de jeton des utilisateurs
+-- Les jetons d'accès portent cette version ; l'incrémenter (désactivation, rôles, mot de passe)
+-- invalide les jetons déjà émis sans recharger l'utilisateur à chaque requête.
+
+ALTER TABLE users
+ADD COLUMN token_version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,17 @@
+-- Migration V13 : Refresh tokens hachés
+-- Seule l'empreinte SHA-256 (hex, longueur fixe) du jeton est conservée, avec un index unique pour la recherche.
+-- Index sur l'expiration pour la purge par lots et sur (user_id, expires_at) pour le plafond de sessions.
+
+ALTER TABLE refresh_tokens
+ADD COLUMN token_hash CHAR(64) NULL;
+
+UPDATE refresh_tokens
+SET token_hash = SHA2(token, 256);
+
+ALTER TABLE refresh_tokens
+MODIFY COLUMN token_hash CHAR(64) NOT NULL,
+DROP COLUMN token;
+
+CREATE UNIQUE INDEX uk_refresh_tokens_hash ON refresh_tokens (token_hash);
+CREATE INDEX idx_refresh_tokens_expires ON refresh_tokens (expires_at);
+CREATE INDEX idx_refresh_tokens_user_expires ON refresh_tokens (user_id, expires_at);
@@ -0,0 +1,31 @@
+-- Migration V6 : Registre d'affectation des paiements réparateurs aux commissions
+-- Chaque ligne relie un paiement réparateur à la commission qu'il solde.
+-- Le statut payé / en attente devient une simple recherche indexée au lieu d'un rapprochement en mémoire.
+
+CREATE TABLE commission_allocations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    commission_id BIGINT NOT NULL,
+    reparateur_payment_id BIGINT NOT NULL,
+    reparateur_id BIGINT NOT NULL,
+    montant DECIMAL(12, 2) NOT NULL,
+    date_paiement DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+
+    CONSTRAINT fk_commission_allocation_commission
+        FOREIGN KEY (commission_id) REFERENCES commissions(id) ON DELETE CASCADE,
+    CONSTRAINT fk_commission_allocation_payment
+        FOREIGN KEY (reparateur_payment_id) REFERENCES reparateur_payments(id) ON DELETE CASCADE,
+    CONSTRAINT fk_commission_allocation_reparateur
+        FOREIGN KEY (reparateur_id) REFERENCES users(id) ON DELETE CASCADE,
+
+    CONSTRAINT uk_commission_allocation_commission UNIQUE (commission_id),
+    INDEX idx_commission_allocations_payment (reparateur_payment_id),
+    INDEX idx_commission_allocations_reparateur (reparateur_id, date_paiement)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+ALTER TABLE commission_allocations
+    COMMENT = 'Affectation des paiements réparateurs aux commissions qu''ils soldent';
+
+-- Les paiements antérieurs à cette migration sont rapprochés une seule fois au démarrage
+-- (CommissionService.backfillAllocations) avec les mêmes règles que l'ancien calcul en mémoire.
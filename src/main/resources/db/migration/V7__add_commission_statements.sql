@@ -0,0 +1,32 @@
+-- Migration V7 : Relevés mensuels figés des réparateurs
+-- Un relevé par réparateur et par mois clôturé ; les résumés additionnent les relevés
+-- et ne recalculent en direct que la période ouverte.
+
+CREATE TABLE commission_statements (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    reparateur_id BIGINT NOT NULL,
+    periode DATE NOT NULL,
+    date_debut DATETIME(6) NOT NULL,
+    date_fin DATETIME(6) NOT NULL,
+    nombre_commissions BIGINT NOT NULL,
+    total_reparations DECIMAL(14, 2) NOT NULL,
+    total_commissions DECIMAL(14, 2) NOT NULL,
+    somme_pourcentages_ponderes DECIMAL(18, 4) NOT NULL,
+    total_paye DECIMAL(14, 2) NOT NULL,
+    montant_solde DECIMAL(14, 2) NOT NULL,
+    solde_reporte DECIMAL(14, 2) NOT NULL,
+    created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+
+    CONSTRAINT fk_commission_statement_reparateur
+        FOREIGN KEY (reparateur_id) REFERENCES users(id) ON DELETE CASCADE,
+
+    CONSTRAINT uk_commission_statement_periode UNIQUE (reparateur_id, periode),
+    INDEX idx_commission_statements_periode (periode)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+ALTER TABLE commission_statements
+    COMMENT = 'Relevés mensuels clôturés des commissions réparateurs';
+
+-- Affectations enregistrées depuis la dernière clôture (période ouverte)
+CREATE INDEX idx_commission_allocations_reparateur_created ON commission_allocations(reparateur_id, created_at);
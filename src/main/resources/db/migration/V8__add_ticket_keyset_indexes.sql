@@ -0,0 +1,6 @@
+-- Migration V8 : Index pour la pagination par clé des tickets
+-- Les index InnoDB secondaires contiennent la clé primaire : (updated_at) couvre déjà (updated_at, id).
+-- Pour la liste d'un réparateur, l'index composite évite de trier tous ses tickets.
+
+CREATE INDEX idx_tickets_agent_updated_at ON tickets(assigned_agent_id, updated_at);
+CREATE INDEX idx_tickets_agent_created_at ON tickets(assigned_agent_id, created_at);
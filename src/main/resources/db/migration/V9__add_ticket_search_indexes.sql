@@ -0,0 +1,9 @@
+-- Migration V9 : Index composites pour la recherche multi-critères des tickets
+-- Les formes de filtre les plus courantes : statut seul trié par date, réparateur + statut,
+-- client + statut, priorité + statut.
+
+CREATE INDEX idx_tickets_status_updated_at ON tickets(status, updated_at);
+CREATE INDEX idx_tickets_status_created_at ON tickets(status, created_at);
+CREATE INDEX idx_tickets_agent_status ON tickets(assigned_agent_id, status, updated_at);
+CREATE INDEX idx_tickets_requester_status ON tickets(requester_id, status, created_at);
+CREATE INDEX idx_tickets_priority_status ON tickets(priority, status);
@@ -1,18 +1,47 @@
 package com.centrecommercial.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.centrecommercial.domain.user.Role;
 import com.centrecommercial.domain.user.RoleType;
+import com.centrecommercial.domain.user.User;
 import com.centrecommercial.dto.auth.AuthResponse;
 import com.centrecommercial.dto.auth.LoginRequest;
+import com.centrecommercial.dto.auth.RefreshTokenRequest;
 import com.centrecommercial.dto.auth.RegisterRequest;
+import com.centrecommercial.dto.user.PasswordUpdateRequest;
 import com.centrecommercial.dto.user.UserResponse;
+import com.centrecommercial.exception.BusinessException;
+import com.centrecommercial.exception.TooManyRequestsException;
+import com.centrecommercial.repository.RefreshTokenRepository;
 import com.centrecommercial.repository.RoleRepository;
+import com.centrecommercial.repository.UserRepository;
+import com.centrecommercial.security.BoundedPasswordEncoder;
+import com.centrecommercial.security.CustomUserDetailsService;
+import com.centrecommercial.security.JwtUtils;
+import com.centrecommercial.security.LoginRateLimiter;
+import com.centrecommercial.security.TokenRevocationList;
+import com.centrecommercial.security.TokenStateService;
+import com.centrecommercial.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +56,42 @@ class AuthServiceIT {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private TokenStateService tokenStateService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private UserService userService;
+
     @BeforeEach
     void setUpRoles() {
         for (RoleType type : RoleType.values()) {
@@ -52,5 +117,161 @@ class AuthServiceIT {
         assertThat(authResponse.token()).isNotBlank();
         assertThat(authResponse.user().email()).isEqualTo(registerRequest.email());
     }
-}
 
+    @Test
+    void shouldRotateRefreshTokenAndCapActiveSessions() {
+        UserResponse created = authService.register(new RegisterRequest("Hugo", "Blanc", "hugo@example.com", "Password123!", null));
+        AuthResponse first = authService.login(new LoginRequest("hugo@example.com", "Password123!"));
+
+        AuthResponse rotated = authService.refresh(new RefreshTokenRequest(first.refreshToken()));
+        assertThat(rotated.refreshToken()).isNotEqualTo(first.refreshToken());
+        assertThat(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash(first.refreshToken()))).isEmpty();
+
+        // Un jeton déjà consommé ne peut pas être rejoué
+        assertThatThrownBy(() -> authService.refresh(new RefreshTokenRequest(first.refreshToken())))
+                .isInstanceOf(BusinessException.class);
+        assertThat(authService.refresh(new RefreshTokenRequest(rotated.refreshToken())).refreshToken()).isNotBlank();
+
+        User user = userRepository.findById(created.id()).orElseThrow();
+        for (int i = 0; i < 7; i++) {
+            refreshTokenService.issue(user);
+        }
+        assertThat(refreshTokenRepository.findActiveIds(created.id(), Instant.now())).hasSize(5);
+    }
+
+    @Test
+    void shouldRevokeRefreshTokensWhenPasswordChanges() {
+        UserResponse created = authService.register(new RegisterRequest("Jules", "Faure", "jules@example.com", "Password123!", null));
+        AuthResponse session = authService.login(new LoginRequest("jules@example.com", "Password123!"));
+
+        userService.updatePassword(created.id(), new PasswordUpdateRequest("Password123!", "Nouveau456!"));
+
+        assertThatThrownBy(() -> authService.refresh(new RefreshTokenRequest(session.refreshToken())))
+                .isInstanceOf(BusinessException.class);
+        cacheManager.getCache("tokenStates").evict(created.id());
+    }
+
+    @Test
+    void shouldRevokeAccessTokenOnLogout() {
+        authService.register(new RegisterRequest("Inès", "Garnier", "ines@example.com", "Password123!", null));
+        AuthResponse session = authService.login(new LoginRequest("ines@example.com", "Password123!"));
+        AuthResponse other = authService.login(new LoginRequest("ines@example.com", "Password123!"));
+        String jti = jwtUtils.parse(session.token()).getId();
+        assertThat(tokenRevocationList.isRevoked(jti)).isFalse();
+
+        authService.logout(session.token());
+
+        assertThat(tokenRevocationList.isRevoked(jti)).isTrue();
+        assertThat(tokenRevocationList.isRevoked(jwtUtils.parse(other.token()).getId())).isFalse();
+        assertThatThrownBy(() -> authService.refresh(new RefreshTokenRequest(session.refreshToken())))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void shouldAuthenticateFromTokenClaimsAndRejectRevokedVersion() {
+        UserResponse created = authService.register(new RegisterRequest("Bruno", "Petit", "bruno@example.com", "Password123!", null));
+        AuthResponse authResponse = authService.login(new LoginRequest("bruno@example.com", "Password123!"));
+
+        Claims claims = jwtUtils.parse(authResponse.token());
+        UserPrincipal principal = JwtUtils.toPrincipal(claims);
+        assertThat(principal.id()).isEqualTo(created.id());
+        assertThat(principal.hasRole(RoleType.ROLE_USER)).isTrue();
+        assertThat(tokenStateService.find(created.id()).accepts(JwtUtils.version(claims))).isTrue();
+
+        User user = userRepository.findById(created.id()).orElseThrow();
+        user.revokeTokens();
+        userRepository.saveAndFlush(user);
+        // Ce que fait CacheInvalidationListener après commit
+        cacheManager.getCache("tokenStates").evict(created.id());
+
+        assertThat(tokenStateService.find(created.id()).accepts(JwtUtils.version(claims))).isFalse();
+        cacheManager.getCache("tokenStates").evict(created.id());
+    }
+
+    @Test
+    void shouldServeUserDetailsFromCacheUntilUserChanges() {
+        UserResponse created = authService.register(new RegisterRequest("Chloé", "Roux", "chloe@example.com", "Password123!", null));
+
+        UserDetails first = userDetailsService.loadUserByUsername("chloe@example.com");
+        assertThat(userDetailsService.loadUserByUsername("chloe@example.com")).isSameAs(first);
+        assertThat(meterRegistry.find("security.userdetails.age").timer().count()).isGreaterThanOrEqualTo(2);
+
+        // Ce que fait CacheInvalidationListener après commit
+        userDetailsService.evict(created.id());
+
+        assertThat(userDetailsService.loadUserByUsername("chloe@example.com")).isNotSameAs(first);
+        userDetailsService.evict(created.id());
+    }
+
+    @Test
+    void shouldRehashPasswordOnLoginWhenCostChanged() {
+        Role userRole = roleRepository.findByName(RoleType.ROLE_USER).orElseThrow();
+        User user = userRepository.save(User.builder()
+                .firstName("Denis")
+                .lastName("Morel")
+                .email("denis@example.com")
+                .passwordHash(new BCryptPasswordEncoder(4).encode("Password123!"))
+                .roles(new HashSet<>(Set.of(userRole)))
+                .build());
+
+        authService.login(new LoginRequest("denis@example.com", "Password123!"));
+
+        entityManager.clear();
+        String hash = userRepository.findById(user.getId()).orElseThrow().getPasswordHash();
+        assertThat(hash).startsWith("$2a$10$");
+        assertThat(passwordEncoder.matches("Password123!", hash)).isTrue();
+    }
+
+    @Test
+    void shouldRejectHashingWhenPoolIsSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        try (BoundedPasswordEncoder bounded = new BoundedPasswordEncoder(slow, 1, 0, new SimpleMeterRegistry())) {
+            CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> bounded.encode("premier"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> bounded.encode("second"))
+                    .isInstanceOf(TooManyRequestsException.class);
+
+            release.countDown();
+            assertThat(busy.get(5, TimeUnit.SECONDS)).isEqualTo("premier");
+        }
+    }
+
+    @Test
+    void shouldThrottleLoginAttemptsPerAccountAndPerIp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LoginRateLimiter limiter = new LoginRateLimiter(3, 1, 2, 1, registry);
+
+        limiter.checkLogin("10.0.0.1", "eve@example.com");
+        limiter.checkLogin("10.0.0.1", "EVE@example.com ");
+        assertThatThrownBy(() -> limiter.checkLogin("10.0.0.1", "eve@example.com"))
+                .isInstanceOfSatisfying(TooManyRequestsException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isBetween(1L, 60L));
+
+        // Le seau de l'adresse est vide à son tour (3 jetons consommés), une autre adresse reste libre
+        assertThatThrownBy(() -> limiter.checkLogin("10.0.0.1", "frank@example.com"))
+                .isInstanceOf(TooManyRequestsException.class);
+        limiter.checkLogin("10.0.0.2", "frank@example.com");
+
+        assertThat(registry.counter("security.login.rejected", "limit", "account").count()).isEqualTo(1);
+        assertThat(registry.counter("security.login.rejected", "limit", "ip").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,385 @@
+package com.centrecommercial.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.centrecommercial.domain.commission.CommissionStatement;
+import com.centrecommercial.domain.payment.PaymentMethod;
+import com.centrecommercial.domain.payment.PaymentStatus;
+import com.centrecommercial.domain.ticket.TicketPriority;
+import com.centrecommercial.domain.user.Role;
+import com.centrecommercial.domain.user.RoleType;
+import com.centrecommercial.domain.user.User;
+import com.centrecommercial.dto.commission.CommissionBatchPaymentRequest;
+import com.centrecommercial.dto.commission.CommissionBatchPaymentResponse;
+import com.centrecommercial.dto.commission.CommissionSummaryResponse;
+import com.centrecommercial.dto.commission.ReparateurBalanceResponse;
+import com.centrecommercial.dto.commission.ReparateurPaymentDetailResponse;
+import com.centrecommercial.dto.commission.ReparateurPaymentRequest;
+import com.centrecommercial.dto.common.CursorPage;
+import com.centrecommercial.dto.payment.PaymentRequest;
+import com.centrecommercial.dto.payment.PaymentResponse;
+import com.centrecommercial.dto.payment.PaymentValidationRequest;
+import com.centrecommercial.dto.ticket.TicketAssignRequest;
+import com.centrecommercial.dto.ticket.TicketCreateRequest;
+import com.centrecommercial.dto.ticket.TicketResponse;
+import com.centrecommercial.event.CommissionsChangedEvent;
+import com.centrecommercial.event.UserChangedEvent;
+import com.centrecommercial.exception.BusinessException;
+import com.centrecommercial.repository.CommissionStatementRepository;
+import com.centrecommercial.repository.RoleRepository;
+import com.centrecommercial.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class CommissionServiceIT {
+
+    @Autowired
+    private CommissionService commissionService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private CommissionStatementService commissionStatementService;
+
+    @Autowired
+    private CommissionsCacheReloader commissionsCacheReloader;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommissionStatementRepository commissionStatementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProprietaireResolver proprietaireResolver;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private User client;
+    private User reparateur;
+    private User admin;
+    private User proprietaire;
+
+    @BeforeEach
+    void initData() {
+        for (RoleType type : RoleType.values()) {
+            roleRepository.findByName(type).orElseGet(() -> roleRepository.save(new Role(type)));
+        }
+        client = createUser("client@example.com", RoleType.ROLE_USER);
+        reparateur = createUser("reparateur@example.com", RoleType.ROLE_REPARATEUR);
+        admin = createUser("admin@example.com", RoleType.ROLE_ADMIN);
+        proprietaire = createUser("proprietaire@example.com", RoleType.ROLE_PROPRIETAIRE);
+        // Les utilisateurs des autres tests sont annulés : l'ID de propriétaire en cache n'est plus valable
+        cacheManager.getCache("proprietaire").clear();
+    }
+
+    @Test
+    void shouldMarkCommissionAsPaidThroughLedger() {
+        createValidatedRepair("Réparation téléphone", new BigDecimal("200.00"));
+
+        List<ReparateurPaymentDetailResponse> pending =
+                commissionService.getPendingPayments(reparateur.getId(), null, null, null, 50).content();
+        assertThat(pending).hasSize(1);
+        ReparateurPaymentDetailResponse commission = pending.get(0);
+        assertThat(commission.montantCommission()).isEqualByComparingTo("60.00");
+
+        ReparateurPaymentRequest request = new ReparateurPaymentRequest(new BigDecimal("60.00"), "CASH", null);
+        ReparateurPaymentDetailResponse paid = commissionService.payCommission(commission.commissionId(), request, admin.getId());
+
+        assertThat(paid.statutPaiementReparateur()).isEqualTo("PAYE");
+        assertThat(paid.datePaiementReparateur()).isNotNull();
+        assertThat(commissionService.getPendingPayments(reparateur.getId(), null, null, null, 50).content()).isEmpty();
+        assertThat(commissionService.getSummary(reparateur.getId(), null, null).soldeRestant()).isEqualByComparingTo("0");
+        assertThatThrownBy(() -> commissionService.payCommission(commission.commissionId(), request, admin.getId()))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void shouldAllocateLumpSumPaymentToOldestCommissions() {
+        createValidatedRepair("Réparation tablette", new BigDecimal("100.00"));
+        createValidatedRepair("Réparation ordinateur", new BigDecimal("300.00"));
+        createValidatedRepair("Réparation imprimante", new BigDecimal("1000.00"));
+
+        // 30 + 90 = 120 MAD couvre les deux plus anciennes commissions, pas la troisième (300 MAD)
+        commissionService.recordReparateurPayment(reparateur.getId(),
+                new ReparateurPaymentRequest(new BigDecimal("150.00"), "VIREMENT", null), admin.getId());
+
+        List<ReparateurPaymentDetailResponse> details =
+                commissionService.getReparateurPaymentDetails(reparateur.getId(), null, null);
+        assertThat(details).extracting(ReparateurPaymentDetailResponse::statutPaiementReparateur)
+                .containsExactly("PAYE", "PAYE", "EN_ATTENTE");
+        CommissionSummaryResponse summary = commissionService.getSummary(reparateur.getId(), null, null);
+        assertThat(summary.totalTicketsRepares()).isEqualTo(3);
+        assertThat(summary.totalReparations()).isEqualByComparingTo("1400.00");
+        assertThat(summary.totalCommissions()).isEqualByComparingTo("420.00");
+        assertThat(summary.pourcentageCommission()).isEqualByComparingTo("30.00");
+        assertThat(summary.soldeRestant()).isEqualByComparingTo("300.00");
+        assertThat(summary.reparations()).hasSize(3);
+
+        ReparateurBalanceResponse balance = commissionService.getBalances(null, null).stream()
+                .filter(b -> b.reparateurId().equals(reparateur.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(balance.totalTicketsRepares()).isEqualTo(3);
+        assertThat(balance.totalCommissions()).isEqualByComparingTo("420.00");
+        assertThat(balance.totalPaye()).isEqualByComparingTo("150.00");
+        assertThat(balance.soldeRestant()).isEqualByComparingTo("300.00");
+    }
+
+    @Test
+    void shouldBackfillOnlyPaymentsRecordedBeforeTheLedger() {
+        createValidatedRepair("Réparation imprimante", new BigDecimal("1000.00"));
+        createValidatedRepair("Réparation tablette", new BigDecimal("100.00"));
+        createValidatedRepair("Réparation ordinateur", new BigDecimal("200.00"));
+        Long ordinateur = commissionService.getPendingPayments(reparateur.getId(), null, null, null, 50).content().stream()
+                .filter(c -> c.montantCommission().compareTo(new BigDecimal("60.00")) == 0)
+                .findFirst().orElseThrow().commissionId();
+        // Première affectation : mise en service du registre
+        commissionService.payCommission(ordinateur, new ReparateurPaymentRequest(new BigDecimal("60.00"), "CASH", null), admin.getId());
+
+        // 30 MAD ne couvre pas la plus ancienne commission (300 MAD) : le paiement reste un avoir non affecté
+        commissionService.recordReparateurPayment(reparateur.getId(),
+                new ReparateurPaymentRequest(new BigDecimal("30.00"), "CASH", null), admin.getId());
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE commission_allocations SET created_at = ? WHERE reparateur_id = ?",
+                Timestamp.from(Instant.now().minusSeconds(3600)), reparateur.getId());
+        assertThat(commissionService.backfillAllocations()).isZero();
+        assertThat(commissionService.getPendingPayments(reparateur.getId(), null, null, null, 50).content()).hasSize(2);
+
+        // Le même paiement enregistré avant le registre est rapproché selon l'ancien calcul, une seule fois
+        jdbcTemplate.update("UPDATE reparateur_payments SET created_at = ? WHERE montant = 30.00 AND reparateur_id = ?",
+                Timestamp.from(Instant.now().minusSeconds(7200)), reparateur.getId());
+        entityManager.clear();
+        assertThat(commissionService.backfillAllocations()).isEqualTo(1);
+        assertThat(commissionService.backfillAllocations()).isZero();
+        assertThat(commissionService.getPendingPayments(reparateur.getId(), null, null, null, 50).content())
+                .extracting(ReparateurPaymentDetailResponse::montantCommission)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("300.00"));
+    }
+
+    @Test
+    void shouldPagePendingCommissionsWithCursor() {
+        createValidatedRepair("Réparation tablette", new BigDecimal("100.00"));
+        createValidatedRepair("Réparation ordinateur", new BigDecimal("300.00"));
+        createValidatedRepair("Réparation imprimante", new BigDecimal("1000.00"));
+
+        CursorPage<ReparateurPaymentDetailResponse> first =
+                commissionService.getPendingPayments(reparateur.getId(), null, null, null, 2);
+        assertThat(first.content()).hasSize(2);
+        assertThat(first.hasNext()).isTrue();
+
+        CursorPage<ReparateurPaymentDetailResponse> second =
+                commissionService.getPendingPayments(reparateur.getId(), null, null, first.nextCursor(), 2);
+        assertThat(second.content()).extracting(ReparateurPaymentDetailResponse::montantCommission)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("300.00"));
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void shouldPayCommissionsInBatchAndSkipAlreadyPaidOnes() {
+        createValidatedRepair("Réparation tablette", new BigDecimal("100.00"));
+        createValidatedRepair("Réparation ordinateur", new BigDecimal("300.00"));
+        List<Long> ids = commissionService.getPendingPayments(reparateur.getId(), null, null, null, 50).content().stream()
+                .map(ReparateurPaymentDetailResponse::commissionId)
+                .toList();
+        commissionService.payCommission(ids.get(0), new ReparateurPaymentRequest(new BigDecimal("30.00"), "CASH", null), admin.getId());
+
+        CommissionBatchPaymentResponse response = commissionService.payCommissions(
+                new CommissionBatchPaymentRequest(ids, null, null, "VIREMENT", "Fin de mois"), admin.getId());
+
+        assertThat(response.nombreCommissionsPayees()).isEqualTo(1);
+        assertThat(response.montantTotal()).isEqualByComparingTo("90.00");
+        assertThat(response.versements()).hasSize(1);
+        assertThat(response.commissionsIgnorees()).containsExactly(ids.get(0));
+        assertThat(commissionService.getPendingPayments(reparateur.getId(), null, null, null, 50).content()).isEmpty();
+    }
+
+    @Test
+    void shouldCombineClosedStatementsWithOpenPeriod() {
+        createValidatedRepair("Réparation tablette", new BigDecimal("100.00"));
+        createValidatedRepair("Réparation ordinateur", new BigDecimal("300.00"));
+        createValidatedRepair("Réparation imprimante", new BigDecimal("1000.00"));
+        List<Long> ids = commissionService.getPendingPayments(reparateur.getId(), null, null, null, 50).content().stream()
+                .map(ReparateurPaymentDetailResponse::commissionId)
+                .toList();
+        commissionService.payCommission(ids.get(0), new ReparateurPaymentRequest(new BigDecimal("30.00"), "CASH", null), admin.getId());
+
+        // Les deux premières commissions datent d'il y a deux mois, la troisième reste dans la période ouverte
+        Instant ilYADeuxMois = YearMonth.now(ZoneOffset.UTC).minusMonths(2).atDay(15).atStartOfDay(ZoneOffset.UTC).toInstant();
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE commissions SET created_at = ? WHERE id IN (?, ?)",
+                Timestamp.from(ilYADeuxMois), ids.get(0), ids.get(1));
+        entityManager.clear();
+        CommissionSummaryResponse live = commissionService.getSummary(reparateur.getId(), null, null);
+
+        assertThat(commissionStatementService.cloturerJusqua(YearMonth.now(ZoneOffset.UTC).minusMonths(1))).isPositive();
+        assertThatThrownBy(() -> commissionStatementService.cloturerJusqua(YearMonth.now(ZoneOffset.UTC)))
+                .isInstanceOf(BusinessException.class);
+
+        CommissionSummaryResponse snapshot = commissionService.getSummary(reparateur.getId(), null, null);
+        assertThat(snapshot.totalTicketsRepares()).isEqualTo(live.totalTicketsRepares());
+        assertThat(snapshot.totalReparations()).isEqualByComparingTo(live.totalReparations());
+        assertThat(snapshot.totalCommissions()).isEqualByComparingTo("420.00");
+        assertThat(snapshot.totalPaye()).isEqualByComparingTo("30.00");
+        assertThat(snapshot.pourcentageCommission()).isEqualByComparingTo(live.pourcentageCommission());
+        assertThat(snapshot.soldeRestant()).isEqualByComparingTo("390.00");
+
+        // Détail sans période : commissions clôturées encore dues puis période ouverte
+        assertThat(commissionService.loadReparateurPaymentDetails(reparateur.getId(), null, null))
+                .extracting(ReparateurPaymentDetailResponse::commissionId)
+                .containsExactly(ids.get(1), ids.get(2));
+        // Détail sur une période : toutes ses lignes, avec leur statut de paiement
+        assertThat(commissionService.loadReparateurPaymentDetails(reparateur.getId(),
+                        ilYADeuxMois.minus(1, ChronoUnit.DAYS), ilYADeuxMois.plus(1, ChronoUnit.DAYS)))
+                .extracting(ReparateurPaymentDetailResponse::commissionId, ReparateurPaymentDetailResponse::statutPaiementReparateur)
+                .containsExactly(tuple(ids.get(0), "PAYE"), tuple(ids.get(1), "EN_ATTENTE"));
+
+        // Une commission d'un mois clôturé payée après la clôture réduit le solde de la période ouverte
+        commissionService.payCommission(ids.get(1), new ReparateurPaymentRequest(new BigDecimal("90.00"), "CASH", null), admin.getId());
+        assertThat(commissionService.getSummary(reparateur.getId(), null, null).soldeRestant()).isEqualByComparingTo("300.00");
+    }
+
+    @Test
+    void shouldCloseTechniciansByTheirCommissionsOnce() {
+        createValidatedRepair("Réparation tablette", new BigDecimal("100.00"));
+        Instant ilYADeuxMois = YearMonth.now(ZoneOffset.UTC).minusMonths(2).atDay(15).atStartOfDay(ZoneOffset.UTC).toInstant();
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE commissions SET created_at = ? WHERE reparateur_id = ?",
+                Timestamp.from(ilYADeuxMois), reparateur.getId());
+        // Le technicien a quitté l'atelier depuis : il n'a plus le rôle réparateur
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = ?", reparateur.getId());
+        entityManager.clear();
+
+        YearMonth moisPrecedent = YearMonth.now(ZoneOffset.UTC).minusMonths(1);
+        assertThat(commissionStatementService.cloturerJusqua(moisPrecedent)).isEqualTo(1);
+        CommissionStatement releve = commissionStatementRepository.findTopByReparateurIdOrderByPeriodeDesc(reparateur.getId())
+                .orElseThrow();
+        assertThat(releve.getTotalCommissions()).isEqualByComparingTo("30.00");
+        assertThat(releve.getSoldeReporte()).isEqualByComparingTo("30.00");
+
+        // Une seconde clôture (tâche planifiée après un appel manuel) ne crée rien et n'échoue pas
+        assertThat(commissionStatementService.cloturerJusqua(moisPrecedent)).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldEvictOnlyAffectedTechnicianAfterCommit() {
+        Cache commissions = cacheManager.getCache("commissions");
+        // Lecture directe du cache natif : un get() sur un cache à rafraîchissement rechargerait l'entrée
+        Map<Object, Object> entrees = ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) commissions.getNativeCache()).asMap();
+        commissions.put(reparateur.getId() + "_null_null", List.of());
+        commissions.put("999999_null_null", List.of());
+        TransactionTemplate nouvelleTransaction = new TransactionTemplate(transactionManager);
+        nouvelleTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // Transaction annulée : aucune invalidation
+        nouvelleTransaction.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(CommissionsChangedEvent.of(reparateur.getId()));
+            status.setRollbackOnly();
+        });
+        assertThat(entrees).containsKey(reparateur.getId() + "_null_null");
+
+        nouvelleTransaction.executeWithoutResult(status ->
+                eventPublisher.publishEvent(CommissionsChangedEvent.of(reparateur.getId())));
+        assertThat(entrees).doesNotContainKey(reparateur.getId() + "_null_null");
+        assertThat(entrees).containsKey("999999_null_null");
+        commissions.clear();
+    }
+
+    @Test
+    void shouldReloadCommissionDetailsFromCacheKey() {
+        createValidatedRepair("Réparation téléphone", new BigDecimal("200.00"));
+        Instant debut = Instant.now().minusSeconds(3600);
+
+        Object recharge = commissionsCacheReloader.reload(reparateur.getId() + "_" + debut + "_null");
+
+        assertThat(recharge).isEqualTo(commissionService.loadReparateurPaymentDetails(reparateur.getId(), debut, null));
+        assertThat((List<?>) recharge).hasSize(1);
+    }
+
+    @Test
+    void shouldResolveOwnerFromCacheUntilUsersChange() {
+        createValidatedRepair("Réparation téléphone", new BigDecimal("200.00"));
+        assertThat(proprietaireResolver.resolveId()).isEqualTo(proprietaire.getId());
+        assertThat(cacheManager.getCache("proprietaire").get("id", Long.class)).isEqualTo(proprietaire.getId());
+
+        TransactionTemplate nouvelleTransaction = new TransactionTemplate(transactionManager);
+        nouvelleTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        nouvelleTransaction.executeWithoutResult(status ->
+                eventPublisher.publishEvent(new UserChangedEvent(proprietaire.getId())));
+
+        assertThat(cacheManager.getCache("proprietaire").get("id")).isNull();
+    }
+
+    private void createValidatedRepair(String title, BigDecimal amount) {
+        TicketResponse ticket = ticketService.create(client.getId(),
+                new TicketCreateRequest(title, "Diagnostic", TicketPriority.MOYENNE,
+                        null, null, null, null, null, null, null, null, null));
+        ticketService.assign(ticket.id(), new TicketAssignRequest(reparateur.getId(), new BigDecimal("30.00")), admin.getId());
+        PaymentResponse payment = paymentService.create(client.getId(),
+                new PaymentRequest(amount, "MAD", PaymentMethod.ESPECES, ticket.id(), null));
+        paymentService.validate(payment.id(), new PaymentValidationRequest(PaymentStatus.VALIDE, null, null), admin.getId());
+    }
+
+    private User createUser(String email, RoleType roleType) {
+        User user = User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email(email)
+                .passwordHash(passwordEncoder.encode("Password123!"))
+                .build();
+        roleRepository.findByName(roleType).ifPresent(role -> user.getRoles().add(role));
+        return userRepository.save(user);
+    }
+}
@@ -15,11 +15,14 @@ import com.centrecommercial.dto.ticket.TicketCreateRequest;
 import com.centrecommercial.dto.ticket.TicketResponse;
 import com.centrecommercial.repository.RoleRepository;
 import com.centrecommercial.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.math.BigDecimal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
@@ -44,6 +47,12 @@ class PaymentServiceIT {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private User requester;
     private User validator;
     private TicketResponse ticket;
@@ -53,6 +62,7 @@ class PaymentServiceIT {
         for (RoleType type : RoleType.values()) {
             roleRepository.findByName(type).orElseGet(() -> roleRepository.save(new Role(type)));
         }
+        cacheManager.getCache("proprietaire").clear();
         requester = createUser("client@example.com");
         validator = createUser("admin@example.com");
         ticket = ticketService.create(requester.getId(),
@@ -97,6 +107,21 @@ class PaymentServiceIT {
         assertThat(validated.validatedBy()).isEqualTo(validator.getId());
     }
 
+    @Test
+    void shouldServePaymentListFromBoundedCacheWithMetrics() {
+        Cache payments = cacheManager.getCache("payments");
+        payments.clear();
+
+        paymentService.findAllWithDetails();
+        paymentService.findAllWithDetails();
+
+        assertThat(payments.getNativeCache()).isInstanceOf(com.github.benmanes.caffeine.cache.Cache.class);
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "payments").tag("result", "hit").functionCounter())
+                .isNotNull()
+                .satisfies(counter -> assertThat(counter.count()).isPositive());
+        payments.clear();
+    }
+
     private User createUser(String email) {
         User user = User.builder()
                 .firstName("Test")
@@ -1,19 +1,33 @@
 package com.centrecommercial.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.centrecommercial.domain.ticket.AppareilReparationStatus;
+import com.centrecommercial.domain.ticket.AppareilType;
 import com.centrecommercial.domain.ticket.TicketPriority;
 import com.centrecommercial.domain.user.Role;
 import com.centrecommercial.domain.user.RoleType;
 import com.centrecommercial.domain.user.User;
+import com.centrecommercial.dto.common.CursorPage;
 import com.centrecommercial.dto.ticket.TicketCreateRequest;
 import com.centrecommercial.dto.ticket.TicketResponse;
+import com.centrecommercial.dto.ticket.TicketSearchCriteria;
+import com.centrecommercial.dto.ticket.TicketSummaryResponse;
+import com.centrecommercial.exception.BusinessException;
 import com.centrecommercial.repository.RoleRepository;
+import com.centrecommercial.security.UserPrincipal;
 import com.centrecommercial.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,6 +49,12 @@ class TicketServiceIT {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TicketTextIndex ticketTextIndex;
+
     @BeforeEach
     void ensureRoles() {
         for (RoleType type : RoleType.values()) {
@@ -69,6 +89,154 @@ class TicketServiceIT {
         assertThat(response.requesterId()).isEqualTo(requester.getId());
     }
 
+    @Test
+    void shouldPageTicketsWithCursor() {
+        User requester = createUser("paul@example.com");
+        for (String title : List.of("Panne écran", "Batterie", "Clavier")) {
+            ticketService.create(requester.getId(), new TicketCreateRequest(title, "Diagnostic", TicketPriority.MOYENNE,
+                    null, null, null, null, null, null, null, null, null));
+        }
+        // Nouvelle requête : les dates sont relues avec la précision de la base
+        entityManager.flush();
+        entityManager.clear();
+
+        CursorPage<TicketSummaryResponse> first = ticketService.findPage(new TicketScope(null, null), "createdAt", "", 2, true);
+        assertThat(first.content()).extracting(TicketSummaryResponse::title).containsExactly("Clavier", "Batterie");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(first.totalElements()).isEqualTo(3);
+
+        CursorPage<TicketSummaryResponse> second = ticketService.findPage(new TicketScope(null, null), "createdAt", first.nextCursor(), 2, false);
+        assertThat(second.content()).extracting(TicketSummaryResponse::title).containsExactly("Panne écran");
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.totalElements()).isNull();
+    }
+
+    @Test
+    void shouldListTicketsWithJoinedNames() {
+        User requester = createUser("paul@example.com");
+        TicketResponse created = ticketService.create(requester.getId(), new TicketCreateRequest("Panne écran", "Diagnostic",
+                TicketPriority.MOYENNE, null, null, null, null, null, null, null, null, null));
+        entityManager.flush();
+        entityManager.clear();
+
+        TicketSummaryResponse listed = ticketService.findByRequester(requester.getId(), PageRequest.of(0, 20)).getContent().get(0);
+
+        assertThat(listed.id()).isEqualTo(created.id());
+        assertThat(listed.requesterName()).isEqualTo("Paul Martin");
+        assertThat(listed.assignedAgentId()).isNull();
+        assertThat(listed.assignedAgentName()).isNull();
+        assertThat(listed.appareilStatus()).isEqualTo(created.appareilStatus());
+        assertThat(ticketService.findAll(PageRequest.of(0, 20, Sort.by("createdAt").descending())).getContent())
+                .extracting(TicketSummaryResponse::id)
+                .contains(created.id());
+    }
+
+    @Test
+    void shouldScopeTicketListToClientRequests() {
+        User paul = createUser("paul@example.com");
+        User marie = createUser("marie@example.com");
+        ticketService.create(paul.getId(), new TicketCreateRequest("Panne écran", "Diagnostic",
+                TicketPriority.MOYENNE, null, null, null, null, null, null, null, null, null));
+        ticketService.create(marie.getId(), new TicketCreateRequest("Batterie", "Diagnostic",
+                TicketPriority.MOYENNE, null, null, null, null, null, null, null, null, null));
+
+        TicketScope scope = TicketScope.of(UserPrincipal.from(paul));
+        assertThat(scope.requesterId()).isEqualTo(paul.getId());
+        assertThat(ticketService.findVisible(scope, PageRequest.of(0, 20)).getContent())
+                .extracting(TicketSummaryResponse::title)
+                .containsExactly("Panne écran");
+        assertThat(ticketService.findPage(scope, "createdAt", "", 20, true).totalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSearchTicketsWithCombinedFilters() {
+        User paul = createUser("paul@example.com");
+        TicketResponse ecran = ticketService.create(paul.getId(), new TicketCreateRequest("Panne écran", "Diagnostic",
+                TicketPriority.HAUTE, null, null, null, null, null, null, null, null, null));
+        ticketService.create(paul.getId(), new TicketCreateRequest("Batterie", "Diagnostic",
+                TicketPriority.BASSE, null, null, null, null, null, null, null, null, null));
+
+        TicketSearchCriteria criteria = new TicketSearchCriteria(ecran.status(), TicketPriority.HAUTE,
+                AppareilReparationStatus.PAS_COMMENCE, AppareilType.ECRAN, null, null, Instant.now().minusSeconds(3600), null, null, null, false);
+        Page<TicketSummaryResponse> result = ticketService.search(new TicketScope(null, paul.getId()), criteria, PageRequest.of(0, 20));
+
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent().get(0).title()).isEqualTo("Panne écran");
+        assertThat(result.getContent().get(0).requesterName()).isEqualTo("Paul Martin");
+        assertThat(ticketService.search(new TicketScope(null, paul.getId() + 1000), criteria, PageRequest.of(0, 20))
+                .getContent()).isEmpty();
+        assertThatThrownBy(() -> ticketService.search(new TicketScope(null, paul.getId()), criteria,
+                PageRequest.of(0, 20, Sort.by("inconnu"))))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void shouldRankTextSearchByTitleAndFoldAccents() {
+        User paul = createUser("paul@example.com");
+        User marie = createUser("marie@example.com");
+        TicketResponse titre = ticketService.create(paul.getId(), new TicketCreateRequest("Écran cassé iPhone", "Vitre fendue",
+                TicketPriority.HAUTE, null, null, null, null, null, null, null, null, null));
+        TicketResponse description = ticketService.create(paul.getId(), new TicketCreateRequest("Batterie", "Écran cassé aussi",
+                TicketPriority.BASSE, null, null, null, null, null, null, null, null, null));
+        TicketResponse autre = ticketService.create(marie.getId(), new TicketCreateRequest("Ecran casse", "Diagnostic",
+                TicketPriority.BASSE, null, null, null, null, null, null, null, null, null));
+        // La transaction de test n'est jamais validée : on indexe comme le ferait l'écouteur après commit
+        List.of(titre, description, autre).forEach(t -> ticketTextIndex.index(t.id(), t.title(), t.description()));
+
+        try {
+            Page<TicketSummaryResponse> result = ticketService.searchText(new TicketScope(null, paul.getId()), "ecran CASSÉ", PageRequest.of(0, 20));
+            assertThat(result.getContent()).extracting(TicketSummaryResponse::id).containsExactly(titre.id(), description.id());
+            assertThat(ticketService.searchText(new TicketScope(null, null), "iph", PageRequest.of(0, 20)).getContent())
+                    .extracting(TicketSummaryResponse::id).containsExactly(titre.id());
+            assertThat(ticketService.searchText(new TicketScope(null, null), "ecran", PageRequest.of(1, 2)).getTotalElements())
+                    .isEqualTo(3);
+
+            // Plus de 1000 tickets d'autres clients mieux classés : le périmètre s'applique avant la limite
+            for (long i = 0; i < 1000; i++) {
+                ticketTextIndex.index(Long.MAX_VALUE - i, "Ecran casse", null);
+            }
+            assertThat(ticketService.searchText(new TicketScope(null, paul.getId()), "ecran casse", PageRequest.of(0, 20)).getContent())
+                    .extracting(TicketSummaryResponse::id).containsExactly(titre.id(), description.id());
+        } finally {
+            List.of(titre, description, autre).forEach(t -> ticketTextIndex.remove(t.id()));
+            for (long i = 0; i < 1000; i++) {
+                ticketTextIndex.remove(Long.MAX_VALUE - i);
+            }
+        }
+    }
+
+    @Test
+    void shouldClassifyDeviceTypeOnWholeWords() {
+        User paul = createUser("paul@example.com");
+        ticketService.create(paul.getId(), new TicketCreateRequest("Écran de TÉLÉPHONE cassé", "Diagnostic",
+                TicketPriority.MOYENNE, null, null, null, null, null, null, null, null, null));
+
+        assertThat(ticketService.findVisible(new TicketScope(null, paul.getId()), PageRequest.of(0, 20)).getContent())
+                .extracting(TicketSummaryResponse::appareilType).containsExactly(AppareilType.TELEPHONE);
+        assertThat(AppareilType.classify("Carte PCB grillée")).isEqualTo(AppareilType.AUTRE);
+        assertThat(AppareilType.classify("Deux PCs portables")).isEqualTo(AppareilType.ORDINATEUR);
+        assertThat(AppareilType.classify("Machine à laver bruyante")).isEqualTo(AppareilType.LAVE_LINGE);
+    }
+
+    @Test
+    void shouldReclassifyExistingTicketsFromTitle() {
+        User paul = createUser("paul@example.com");
+        TicketResponse frigo = ticketService.create(paul.getId(), new TicketCreateRequest("Frigo en panne", "Diagnostic",
+                TicketPriority.MOYENNE, null, null, null, null, null, null, null, null, null));
+        entityManager.flush();
+        // Valeur par défaut posée par la mise à jour du schéma sur une base existante
+        entityManager.createQuery("UPDATE Ticket t SET t.appareilType = :type WHERE t.id = :id")
+                .setParameter("type", AppareilType.TELEPHONE)
+                .setParameter("id", frigo.id())
+                .executeUpdate();
+
+        assertThat(ticketService.reclassifyAppareilTypes()).isEqualTo(1);
+        assertThat(ticketService.reclassifyAppareilTypes()).isZero();
+        entityManager.clear();
+        assertThat(ticketService.findVisible(new TicketScope(null, paul.getId()), PageRequest.of(0, 20)).getContent())
+                .extracting(TicketSummaryResponse::appareilType).containsExactly(AppareilType.REFRIGERATEUR);
+    }
+
     private User createUser(String email) {
         User user = User.builder()
                 .firstName("Paul")
@@ -0,0 +1,108 @@
+package com.centrecommercial.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.centrecommercial.domain.user.Role;
+import com.centrecommercial.domain.user.RoleType;
+import com.centrecommercial.domain.user.User;
+import com.centrecommercial.dto.user.UserResponse;
+import com.centrecommercial.dto.user.UserSuggestion;
+import com.centrecommercial.event.UserChangedEvent;
+import com.centrecommercial.exception.BusinessException;
+import com.centrecommercial.repository.RoleRepository;
+import com.centrecommercial.repository.UserRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class UserServiceIT {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private UserDirectoryIndex userDirectoryIndex;
+
+    @BeforeEach
+    void setUp() {
+        for (RoleType type : RoleType.values()) {
+            roleRepository.findByName(type).orElseGet(() -> roleRepository.save(new Role(type)));
+        }
+        cacheManager.getCache("reparateurs").clear();
+    }
+
+    @Test
+    void shouldPageUsersByRoleAndCacheTechnicians() {
+        createUser("Bernard", "bernard@example.com", RoleType.ROLE_USER);
+        createUser("Arnaud", "arnaud@example.com", RoleType.ROLE_USER);
+        createUser("Claude", "claude@example.com", RoleType.ROLE_USER);
+        createUser("Durand", "durand@example.com", RoleType.ROLE_REPARATEUR);
+
+        Page<UserResponse> clients = userService.findByRole(RoleType.ROLE_USER, PageRequest.of(0, 2, Sort.by("lastName")));
+
+        assertThat(clients.getTotalElements()).isEqualTo(3);
+        assertThat(clients.getContent()).extracting(UserResponse::lastName).containsExactly("Arnaud", "Bernard");
+        assertThat(userService.findReparateurs()).extracting(UserResponse::lastName).containsExactly("Durand");
+        assertThat(cacheManager.getCache("reparateurs").get("all")).isNotNull();
+        assertThatThrownBy(() -> userService.findByRole(RoleType.ROLE_USER, PageRequest.of(0, 2, Sort.by("passwordHash"))))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void shouldSuggestUsersByPrefixWithinRole() {
+        User helene = createUser("Hélène", "h.lefevre@example.com", RoleType.ROLE_USER);
+        helene.setPhone("06 12 34 56 78");
+        User henri = createUser("Henri", "henri@example.com", RoleType.ROLE_REPARATEUR);
+        // La transaction de test n'est jamais validée : on applique les événements comme l'écouteur après commit
+        List.of(helene, henri).forEach(user -> userDirectoryIndex.onUserChanged(new UserChangedEvent(user.getId())));
+
+        try {
+            assertThat(userService.suggest("hel", RoleType.ROLE_USER, 10))
+                    .extracting(UserSuggestion::id).containsExactly(helene.getId());
+            assertThat(userService.suggest("0612 34", null, 10))
+                    .extracting(UserSuggestion::id).containsExactly(helene.getId());
+            assertThat(userService.suggest("he", null, 10))
+                    .extracting(UserSuggestion::id).containsExactlyInAnyOrder(helene.getId(), henri.getId());
+            assertThat(userService.suggest("he", RoleType.ROLE_REPARATEUR, 10))
+                    .extracting(UserSuggestion::id).containsExactly(henri.getId());
+        } finally {
+            List.of(helene, henri).forEach(user -> userDirectoryIndex.remove(user.getId()));
+        }
+    }
+
+    private User createUser(String lastName, String email, RoleType roleType) {
+        User user = User.builder()
+                .firstName("Test")
+                .lastName(lastName)
+                .email(email)
+                .passwordHash(passwordEncoder.encode("Password123!"))
+                .build();
+        roleRepository.findByName(roleType).ifPresent(role -> user.getRoles().add(role));
+        return userRepository.save(user);
+    }
+}